@@ -0,0 +1,108 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BatchBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"100", "1000"})
+    private int batch;
+
+    private Map<Object, Object> map;
+    private Object intMap;
+    private Object[][] batches;
+    private int[][] intBatches;
+    private Object[] out;
+    private MethodHandle getAll;
+    private MethodHandle intGet;
+    private MethodHandle intGetAll;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> hashMap = Class.forName("HashMap");
+        Class<?> intObjectMap = Class.forName("IntObjectMap");
+        getAll = lookup.findVirtual(hashMap, "getAll", MethodType.methodType(int.class, Object[].class, Object[].class))
+                .asType(MethodType.methodType(int.class, Object.class, Object[].class, Object[].class));
+        intGet = lookup.findVirtual(intObjectMap, "get", MethodType.methodType(Object.class, int.class))
+                .asType(MethodType.methodType(Object.class, Object.class, int.class));
+        intGetAll = lookup.findVirtual(intObjectMap, "getAll", MethodType.methodType(int.class, int[].class, Object[].class))
+                .asType(MethodType.methodType(int.class, Object.class, int[].class, Object[].class));
+        MethodHandle intPut = lookup.findVirtual(intObjectMap, "put", MethodType.methodType(Object.class, int.class, Object.class));
+
+        Random random = new Random(42);
+        Object[] keys = KeyDistribution.RANDOM.keys(size, random);
+        map = Implementations.newMap("HashMap", size * 2);
+        intMap = intObjectMap.getConstructor(int.class).newInstance(size);
+        for (Object key : keys) {
+            map.put(key, key);
+            intPut.invoke(intMap, (int) (Integer) key, key);
+        }
+
+        int count = Math.max(1, Math.min(size, 1 << 20) / batch);
+        batches = new Object[count][batch];
+        intBatches = new int[count][batch];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < batch; j++) {
+                Object key = keys[random.nextInt(keys.length)];
+                batches[i][j] = key;
+                intBatches[i][j] = (Integer) key;
+            }
+        }
+        out = new Object[batch];
+    }
+
+    @Benchmark
+    public Object[] getLoop() {
+        Object[] keys = batches[nextBatch()];
+        Object[] values = out;
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = map.get(keys[i]);
+        }
+        return values;
+    }
+
+    @Benchmark
+    public int getAll() throws Throwable {
+        return (int) getAll.invokeExact((Object) map, batches[nextBatch()], out);
+    }
+
+    @Benchmark
+    public Object[] intGetLoop() throws Throwable {
+        int[] keys = intBatches[nextBatch()];
+        Object[] values = out;
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = (Object) intGet.invokeExact(intMap, keys[i]);
+        }
+        return values;
+    }
+
+    @Benchmark
+    public int intGetAll() throws Throwable {
+        return (int) intGetAll.invokeExact(intMap, intBatches[nextBatch()], out);
+    }
+
+    private int nextBatch() {
+        int index = cursor++;
+        if (index >= batches.length) {
+            cursor = 1;
+            index = 0;
+        }
+        return index;
+    }
+}
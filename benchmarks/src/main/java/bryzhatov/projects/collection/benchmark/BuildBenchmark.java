@@ -0,0 +1,63 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BuildBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    private KeyDistribution distribution;
+
+    private Object[] keys;
+    private Method fromParallel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        keys = distribution.keys(size, new Random(42));
+        fromParallel = Class.forName("HashMap").getMethod("fromParallel", Object[].class, Object[].class);
+    }
+
+    @Benchmark
+    public Map<Object, Object> put() {
+        Map<Object, Object> map = Implementations.newMap("HashMap");
+        for (Object key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map<Object, Object> putPresized() {
+        Map<Object, Object> map = Implementations.newMap("HashMap", keys.length * 2);
+        for (Object key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object fromParallel() throws ReflectiveOperationException {
+        return fromParallel.invoke(null, keys, keys);
+    }
+
+    @Benchmark
+    public Map<Object, Object> javaUtilPresized() {
+        Map<Object, Object> map = Implementations.newMap("java.util.HashMap", keys.length * 2);
+        for (Object key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,67 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentMapBenchmark {
+
+    @Param({"ConcurrentHashMap", "java.util.concurrent.ConcurrentHashMap"})
+    private String implementation;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "COLLIDING"})
+    private KeyDistribution distribution;
+
+    @Param({"100", "90", "50"})
+    private int readPercent;
+
+    private Object[] keys;
+    private Map<Object, Object> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = distribution.keys(size, new Random(42));
+        map = Implementations.newMap(implementation);
+        for (int i = 0; i < keys.length; i += 2) {
+            map.put(keys[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object singleThread() {
+        return operation();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object sharedFourThreads() {
+        return operation();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object sharedAllThreads() {
+        return operation();
+    }
+
+    private Object operation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Object key = keys[random.nextInt(keys.length)];
+        if (random.nextInt(100) < readPercent) {
+            return map.get(key);
+        }
+        return random.nextBoolean() ? map.put(key, key) : map.remove(key);
+    }
+}
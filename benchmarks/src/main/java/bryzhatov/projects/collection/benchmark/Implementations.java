@@ -0,0 +1,41 @@
+package bryzhatov.projects.collection.benchmark;
+
+import java.util.*;
+
+final class Implementations {
+
+    private Implementations() {
+    }
+
+    static <K, V> Map<K, V> newMap(String name) {
+        return (Map<K, V>) newInstance(name, -1);
+    }
+
+    static <K, V> Map<K, V> newMap(String name, int capacity) {
+        return (Map<K, V>) newInstance(name, capacity);
+    }
+
+    static <T> List<T> newList(String name) {
+        return (List<T>) newInstance(name, -1);
+    }
+
+    static <T> Queue<T> newQueue(String name, int capacity) {
+        return (Queue<T>) newInstance(name, capacity);
+    }
+
+    private static Object newInstance(String name, int capacity) {
+        try {
+            Class<?> type = Class.forName(name);
+            if (capacity >= 0) {
+                try {
+                    return type.getConstructor(int.class).newInstance(capacity);
+                } catch (NoSuchMethodException e) {
+                    return type.getConstructor().newInstance();
+                }
+            }
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create " + name, e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package bryzhatov.projects.collection.benchmark;
+
+import java.util.*;
+
+public enum KeyDistribution {
+    SEQUENTIAL {
+        @Override
+        Object[] keys(int count, Random random) {
+            Object[] keys = new Object[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = i;
+            }
+            return keys;
+        }
+    },
+    RANDOM {
+        @Override
+        Object[] keys(int count, Random random) {
+            Set<Integer> unique = new HashSet<>(count * 2);
+            Object[] keys = new Object[count];
+            int i = 0;
+            while (i < count) {
+                int key = random.nextInt();
+                if (unique.add(key)) {
+                    keys[i++] = key;
+                }
+            }
+            return keys;
+        }
+    },
+    COLLIDING {
+        @Override
+        Object[] keys(int count, Random random) {
+            int length = Math.max(1, 32 - Integer.numberOfLeadingZeros(count - 1));
+            Object[] keys = new Object[count];
+            char[] chars = new char[length * 2];
+            for (int i = 0; i < count; i++) {
+                for (int bit = 0; bit < length; bit++) {
+                    boolean set = (i & (1 << bit)) != 0;
+                    chars[bit * 2] = set ? 'A' : 'B';
+                    chars[bit * 2 + 1] = set ? 'a' : 'B';
+                }
+                keys[i] = new String(chars);
+            }
+            shuffle(keys, random);
+            return keys;
+        }
+    };
+
+    abstract Object[] keys(int count, Random random);
+
+    Object[] missingKeys(Object[] present, Random random) {
+        Object[] keys = keys(present.length * 2, random);
+        Set<Object> known = new HashSet<>(Arrays.asList(present));
+        Object[] missing = new Object[present.length];
+        int count = 0;
+        for (int i = 0; i < keys.length && count < missing.length; i++) {
+            if (!known.contains(keys[i])) {
+                missing[count++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(missing, count);
+    }
+
+    static void shuffle(Object[] keys, Random random) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Object key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+    @Param({"LinkedList", "UnrolledLinkedList", "java.util.LinkedList", "java.util.ArrayList"})
+    private String implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int size;
+
+    private List<Integer> list;
+    private int[] randomIndexes;
+    private int cursor;
+    private int sequentialIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = Implementations.newList(implementation);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        Random random = new Random(42);
+        randomIndexes = new int[Math.min(size, 1 << 16)];
+        for (int i = 0; i < randomIndexes.length; i++) {
+            randomIndexes[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public Integer getRandom() {
+        int index = cursor++;
+        if (index >= randomIndexes.length) {
+            cursor = 1;
+            index = 0;
+        }
+        return list.get(randomIndexes[index]);
+    }
+
+    @Benchmark
+    public Integer getSequential() {
+        int index = sequentialIndex++;
+        if (index >= size) {
+            sequentialIndex = 1;
+            index = 0;
+        }
+        return list.get(index);
+    }
+
+    @Benchmark
+    public Integer addRemoveLast() {
+        list.add(size);
+        return list.remove(size);
+    }
+
+    @Benchmark
+    public Integer addRemoveMiddle() {
+        int middle = size >>> 1;
+        list.add(middle, -1);
+        return list.remove(middle);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Integer value : list) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> fill() {
+        List<Integer> filled = Implementations.newList(implementation);
+        for (int i = 0; i < size; i++) {
+            filled.add(i);
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,99 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+
+    @Param({"HashMap", "LinkedHashMap", "java.util.HashMap", "java.util.LinkedHashMap"})
+    private String implementation;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "COLLIDING"})
+    private KeyDistribution distribution;
+
+    private Object[] keys;
+    private Object[] missingKeys;
+    private Map<Object, Object> map;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        keys = distribution.keys(size, random);
+        missingKeys = distribution.missingKeys(keys, random);
+        map = Implementations.newMap(implementation);
+        for (Object key : keys) {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        Object[] missing = missingKeys;
+        int index = cursor++;
+        if (index >= missing.length) {
+            cursor = 1;
+            index = 0;
+        }
+        return map.get(missing[index]);
+    }
+
+    @Benchmark
+    public Object removeAndPut() {
+        Object key = nextKey();
+        map.remove(key);
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public Map<Object, Object> fill() {
+        Map<Object, Object> filled = Implementations.newMap(implementation);
+        for (Object key : keys) {
+            filled.put(key, key);
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public Map<Object, Object> fillPresized() {
+        Map<Object, Object> filled = Implementations.newMap(implementation, keys.length);
+        for (Object key : keys) {
+            filled.put(key, key);
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    private Object nextKey() {
+        int index = cursor++;
+        if (index >= keys.length) {
+            cursor = 1;
+            index = 0;
+        }
+        return keys[index];
+    }
+}
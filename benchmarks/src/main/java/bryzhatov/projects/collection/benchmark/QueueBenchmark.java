@@ -0,0 +1,93 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+    private static final Integer ELEMENT = 42;
+
+    @Param({"ConcurrentLinkedQueue", "LinkedBlockingQueue",
+            "java.util.concurrent.ConcurrentLinkedDeque", "java.util.concurrent.ArrayBlockingQueue"})
+    private String implementation;
+
+    @Param({"1024"})
+    private int capacity;
+
+    @Param({"1", "64"})
+    private int batch;
+
+    private Queue<Integer> queue;
+    private List<Integer> buffer;
+    private MethodHandle drainTo;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IllegalAccessException {
+        queue = Implementations.newQueue(implementation, capacity);
+        buffer = new ArrayList<>(batch);
+        try {
+            drainTo = MethodHandles.publicLookup().findVirtual(queue.getClass(), "drainTo",
+                    MethodType.methodType(int.class, Collection.class, int.class));
+        } catch (NoSuchMethodException e) {
+            drainTo = null;
+        }
+    }
+
+    @Benchmark
+    @Group("oneToOne")
+    @GroupThreads(1)
+    public boolean oneToOneOffer() {
+        return queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("oneToOne")
+    @GroupThreads(1)
+    public void oneToOnePoll(Blackhole blackhole) throws Throwable {
+        consume(blackhole);
+    }
+
+    @Benchmark
+    @Group("manyToMany")
+    @GroupThreads(4)
+    public boolean manyToManyOffer() {
+        return queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("manyToMany")
+    @GroupThreads(4)
+    public void manyToManyPoll(Blackhole blackhole) throws Throwable {
+        consume(blackhole);
+    }
+
+    private void consume(Blackhole blackhole) throws Throwable {
+        if (batch == 1) {
+            blackhole.consume(queue.poll());
+            return;
+        }
+        buffer.clear();
+        if (queue instanceof BlockingQueue) {
+            ((BlockingQueue<Integer>) queue).drainTo(buffer, batch);
+        } else if (drainTo != null) {
+            drainTo.invoke(queue, buffer, batch);
+        } else {
+            for (Integer element; buffer.size() < batch && (element = queue.poll()) != null; ) {
+                buffer.add(element);
+            }
+        }
+        blackhole.consume(buffer);
+    }
+}
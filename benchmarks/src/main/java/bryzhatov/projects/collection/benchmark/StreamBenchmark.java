@@ -0,0 +1,74 @@
+package bryzhatov.projects.collection.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MapState {
+
+        @Param({"HashMap", "java.util.HashMap"})
+        private String implementation;
+
+        @Param({"10000", "1000000", "10000000"})
+        private int size;
+
+        private Map<Integer, Integer> map;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            map = Implementations.newMap(implementation);
+            for (int i = 0; i < size; i++) {
+                map.put(i, i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ListState {
+
+        @Param({"LinkedList", "java.util.LinkedList", "java.util.ArrayList"})
+        private String implementation;
+
+        @Param({"10000", "1000000", "10000000"})
+        private int size;
+
+        private List<Integer> list;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            list = Implementations.newList(implementation);
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public long mapSequential(MapState state) {
+        return state.map.entrySet().stream().mapToLong(entry -> entry.getKey() ^ entry.getValue()).sum();
+    }
+
+    @Benchmark
+    public long mapParallel(MapState state) {
+        return state.map.entrySet().parallelStream().mapToLong(entry -> entry.getKey() ^ entry.getValue()).sum();
+    }
+
+    @Benchmark
+    public long listSequential(ListState state) {
+        return state.list.stream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long listParallel(ListState state) {
+        return state.list.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+}
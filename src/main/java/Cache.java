@@ -0,0 +1,422 @@
+import java.util.*;
+import java.util.function.Function;
+
+public class Cache<K, V> {
+    private static final double WINDOW_PERCENT = 0.01;
+    private static final double PROTECTED_PERCENT = 0.8;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private final HashMap<K, Node<K, V>> data = new HashMap<>();
+    private final Policy policy;
+    private final long maximumWeight;
+    private final long maximumWindowWeight;
+    private final long maximumProtectedWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final EvictionListener<? super K, ? super V> listener;
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+    private final FrequencySketch sketch;
+    private long weightedSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public Cache(long maximumSize) {
+        this(maximumSize, Policy.LRU);
+    }
+
+    public Cache(long maximumSize, Policy policy) {
+        this(maximumSize, policy, (key, value) -> 1, null);
+    }
+
+    public Cache(long maximumWeight, Policy policy, Weigher<? super K, ? super V> weigher,
+                 EvictionListener<? super K, ? super V> listener) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Illegal maximum weight: " + maximumWeight);
+        }
+        if (policy == null || weigher == null) {
+            throw new NullPointerException();
+        }
+        this.maximumWeight = maximumWeight;
+        this.policy = policy;
+        this.weigher = weigher;
+        this.listener = listener;
+        if (policy == Policy.LRU) {
+            this.maximumWindowWeight = maximumWeight;
+            this.maximumProtectedWeight = 0;
+            this.sketch = null;
+        } else {
+            long mainWeight = maximumWeight - Math.max(1, (long) (maximumWeight * WINDOW_PERCENT));
+            this.maximumWindowWeight = maximumWeight - mainWeight;
+            this.maximumProtectedWeight = (long) (mainWeight * PROTECTED_PERCENT);
+            this.sketch = new FrequencySketch();
+        }
+    }
+
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (sketch != null && key != null) {
+            sketch.increment(spread(key.hashCode()));
+        }
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        onAccess(node);
+        return node.value;
+    }
+
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        return node != null ? node.value : null;
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Illegal weight: " + weight);
+        }
+
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            V old = node.value;
+            node.value = value;
+            queueOf(node).weight += weight - node.weight;
+            weightedSize += weight - node.weight;
+            node.weight = weight;
+            onAccess(node);
+            evict();
+            return old;
+        }
+
+        node = new Node<>(key, value, weight, spread(key.hashCode()));
+        data.put(key, node);
+        if (sketch != null) {
+            sketch.ensureCapacity(data.size());
+            sketch.increment(node.hash);
+        }
+        node.queue = WINDOW;
+        window.linkLast(node);
+        weightedSize += weight;
+        evict();
+        return null;
+    }
+
+    public V remove(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        queueOf(node).unlink(node);
+        weightedSize -= node.weight;
+        return node.value;
+    }
+
+    public boolean containsKey(K key) {
+        return data.containsKey(key);
+    }
+
+    public void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        weightedSize = 0;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        appendQueue(builder, window);
+        appendQueue(builder, probation);
+        appendQueue(builder, protectedQueue);
+        return builder.append('}').toString();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == PROBATION) {
+            probation.unlink(node);
+            node.queue = PROTECTED;
+            protectedQueue.linkLast(node);
+            while (protectedQueue.weight > maximumProtectedWeight && protectedQueue.head != node) {
+                Node<K, V> demoted = protectedQueue.head;
+                protectedQueue.unlink(demoted);
+                demoted.queue = PROBATION;
+                probation.linkLast(demoted);
+            }
+        } else {
+            queueOf(node).moveToLast(node);
+        }
+    }
+
+    private void evict() {
+        if (policy == Policy.LRU) {
+            while (weightedSize > maximumWeight) {
+                evictNode(window.head);
+            }
+            return;
+        }
+
+        while (window.weight > maximumWindowWeight) {
+            Node<K, V> candidate = window.head;
+            window.unlink(candidate);
+            candidate.queue = PROBATION;
+            probation.linkLast(candidate);
+        }
+        while (weightedSize > maximumWeight) {
+            Node<K, V> victim = probation.head != null ? probation.head
+                    : protectedQueue.head != null ? protectedQueue.head : window.head;
+            Node<K, V> candidate = probation.tail;
+            if (candidate == null || candidate == victim || victim.queue != PROBATION) {
+                evictNode(victim);
+            } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                evictNode(victim);
+            } else {
+                evictNode(candidate);
+            }
+        }
+    }
+
+    private void evictNode(Node<K, V> node) {
+        queueOf(node).unlink(node);
+        data.remove(node.key);
+        weightedSize -= node.weight;
+        evictionCount++;
+        if (listener != null) {
+            listener.onEviction(node.key, node.value);
+        }
+    }
+
+    private AccessQueue<K, V> queueOf(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedQueue;
+        }
+    }
+
+    private void appendQueue(StringBuilder builder, AccessQueue<K, V> queue) {
+        for (Node<K, V> node = queue.head; node != null; node = node.next) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(node.key).append('=').append(node.value);
+        }
+    }
+
+    private static int spread(int hash) {
+        int h = hash * GOLDEN_RATIO;
+        return h ^ (h >>> 16);
+    }
+
+    public enum Policy {
+        LRU,
+        W_TINY_LFU
+    }
+
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void onEviction(K key, V value);
+    }
+
+    private static class Node<K, V> {
+        private final K key;
+        private final int hash;
+        private V value;
+        private int weight;
+        private int queue;
+        private Node<K, V> previous;
+        private Node<K, V> next;
+
+        Node(K key, V value, int weight, int hash) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.hash = hash;
+        }
+    }
+
+    private static class AccessQueue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        private long weight;
+
+        void linkLast(Node<K, V> node) {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        void unlink(Node<K, V> node) {
+            Node<K, V> previous = node.previous;
+            Node<K, V> next = node.next;
+            if (previous == null) {
+                head = next;
+            } else {
+                previous.next = next;
+            }
+            if (next == null) {
+                tail = previous;
+            } else {
+                next.previous = previous;
+            }
+            node.previous = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != tail) {
+                unlink(node);
+                linkLast(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+
+    private static class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final int MINIMUM_LENGTH = 16;
+        private static final int MAXIMUM_LENGTH = 1 << 24;
+        private long[] table;
+        private int tableMask;
+        private int sampleSize;
+        private int additions;
+
+        FrequencySketch() {
+            allocate(MINIMUM_LENGTH);
+        }
+
+        void ensureCapacity(int size) {
+            if (size <= table.length || table.length == MAXIMUM_LENGTH) {
+                return;
+            }
+            allocate((int) Math.min(MAXIMUM_LENGTH, (long) Integer.highestOneBit(size - 1) << 1));
+        }
+
+        private void allocate(int length) {
+            this.table = new long[length];
+            this.tableMask = length - 1;
+            this.sampleSize = 10 * length;
+            this.additions = 0;
+        }
+
+        int frequency(int hash) {
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int offset = (start + i) << 2;
+                int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xFL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(int hash) {
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                if (((table[index] >>> offset) & 0xFL) != 0xFL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions >>>= 1;
+        }
+    }
+}
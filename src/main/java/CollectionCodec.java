@@ -0,0 +1,121 @@
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public final class CollectionCodec {
+    private static final int MAGIC = 0x434F4C4C;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAP = 1;
+    private static final int LIST = 2;
+    private static final int GZIP = 1;
+    private static final int NULL_KEY = 1;
+    private static final int NULL_VALUE = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CollectionCodec() {
+    }
+
+    public static <K, V> void writeMap(HashMap<K, V> map, OutputStream out, Codec<? super K> keyCodec,
+                                       Codec<? super V> valueCodec, boolean compress) throws IOException {
+        OutputStream body = open(out, MAP, compress);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(body, BUFFER_SIZE));
+        data.writeInt(map.size());
+        data.writeDouble(map.loadFactor());
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            data.writeByte((key == null ? NULL_KEY : 0) | (value == null ? NULL_VALUE : 0));
+            if (key != null) {
+                keyCodec.write(key, data);
+            }
+            if (value != null) {
+                valueCodec.write(value, data);
+            }
+        }
+        finish(data, body);
+    }
+
+    public static <K, V> HashMap<K, V> readMap(InputStream in, Codec<? extends K> keyCodec,
+                                               Codec<? extends V> valueCodec) throws IOException {
+        DataInputStream data = open(in, MAP);
+        int size = readSize(data);
+        double loadFactor = data.readDouble();
+        HashMap<K, V> map = new HashMap<>((int) Math.min(Integer.MAX_VALUE - 8, (long) (size / loadFactor) + 1),
+                loadFactor);
+        for (int i = 0; i < size; i++) {
+            int flags = data.readUnsignedByte();
+            K key = (flags & NULL_KEY) != 0 ? null : keyCodec.read(data);
+            V value = (flags & NULL_VALUE) != 0 ? null : valueCodec.read(data);
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    public static <T> void writeList(LinkedList<T> list, OutputStream out, Codec<? super T> codec,
+                                     boolean compress) throws IOException {
+        OutputStream body = open(out, LIST, compress);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(body, BUFFER_SIZE));
+        data.writeInt(list.size());
+        for (T element : list) {
+            data.writeBoolean(element == null);
+            if (element != null) {
+                codec.write(element, data);
+            }
+        }
+        finish(data, body);
+    }
+
+    public static <T> LinkedList<T> readList(InputStream in, Codec<? extends T> codec) throws IOException {
+        DataInputStream data = open(in, LIST);
+        int size = readSize(data);
+        LinkedList<T> list = new LinkedList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(data.readBoolean() ? null : codec.read(data));
+        }
+        return list;
+    }
+
+    private static OutputStream open(OutputStream out, int kind, boolean compress) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(FORMAT_VERSION);
+        header.writeByte(kind);
+        header.writeByte(compress ? GZIP : 0);
+        return compress ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+    }
+
+    private static void finish(DataOutputStream data, OutputStream body) throws IOException {
+        data.flush();
+        if (body instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) body).finish();
+        }
+        body.flush();
+    }
+
+    private static DataInputStream open(InputStream in, int kind) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC || header.readUnsignedByte() != FORMAT_VERSION) {
+            throw new StreamCorruptedException("Not a collection snapshot");
+        }
+        if (header.readUnsignedByte() != kind) {
+            throw new StreamCorruptedException("Snapshot does not contain a " + (kind == MAP ? "map" : "list"));
+        }
+        if ((header.readUnsignedByte() & GZIP) == 0) {
+            // Read straight from the caller's stream so nothing past the snapshot is consumed;
+            // callers that want buffering wrap the stream themselves.
+            return header;
+        }
+        // GZIPInputStream reads ahead of the compressed body, so a compressed snapshot must be
+        // the last thing read from the stream.
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE));
+    }
+
+    private static int readSize(DataInput data) throws IOException {
+        int size = data.readInt();
+        if (size < 0) {
+            throw new StreamCorruptedException("Illegal size: " + size);
+        }
+        return size;
+    }
+}
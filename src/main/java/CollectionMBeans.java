@@ -0,0 +1,58 @@
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+
+public final class CollectionMBeans {
+    private static final String DOMAIN = "collection";
+
+    private CollectionMBeans() {
+    }
+
+    public static ObjectName register(String name, HashMap<?, ?> map) {
+        map.enableStats();
+        return register(name, "HashMap", new HashMapMXBean() {
+            @Override
+            public HashMapStats getStats() {
+                return map.getStats();
+            }
+
+            @Override
+            public void resetStats() {
+                map.resetStats();
+            }
+        }, HashMapMXBean.class);
+    }
+
+    public static ObjectName register(String name, LinkedList<?> list) {
+        list.enableStats();
+        return register(name, "LinkedList", new LinkedListMXBean() {
+            @Override
+            public LinkedListStats getStats() {
+                return list.getStats();
+            }
+
+            @Override
+            public void resetStats() {
+                list.resetStats();
+            }
+        }, LinkedListMXBean.class);
+    }
+
+    public static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + name, e);
+        }
+    }
+
+    private static <T> ObjectName register(String name, String type, T bean, Class<T> beanInterface) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(bean, beanInterface, true),
+                    objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + name, e);
+        }
+    }
+}
@@ -0,0 +1,794 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+public class ConcurrentHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int MIN_TRANSFER_STRIDE = 16;
+    private static final int RESIZE_STAMP_BITS = 16;
+    private static final int RESIZE_STAMP_SHIFT = 32 - RESIZE_STAMP_BITS;
+    private static final int MAX_RESIZERS = (1 << (32 - RESIZE_STAMP_BITS)) - 1;
+    private static final int MOVED = -1;
+    private static final int RESERVED = -2;
+    private static final int HASH_BITS = 0x7fffffff;
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+    private final AtomicInteger sizeCtl;
+    private final AtomicInteger transferIndex = new AtomicInteger();
+    private final LongAdder count = new LongAdder();
+    private volatile AtomicReferenceArray<Node<K, V>> nodes;
+    private volatile AtomicReferenceArray<Node<K, V>> nextNodes;
+
+    public ConcurrentHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ConcurrentHashMap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        int length = tableSizeFor(capacity + (capacity >>> 1) + 1);
+        this.nodes = new AtomicReferenceArray<>(length);
+        this.sizeCtl = new AtomicInteger(length - (length >>> 2));
+    }
+
+    @Override
+    public V get(Object key) {
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> table = nodes;
+        Node<K, V> node = table.get((table.length() - 1) & hash);
+        if (node == null) {
+            return null;
+        }
+        if (node.hash < 0) {
+            Node<K, V> found = node.find(hash, key);
+            return found != null ? found.value : null;
+        }
+        while (node != null) {
+            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                return node.value;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        Traverser traverser = new Traverser(nodes);
+        for (Node<K, V> node; (node = traverser.advance()) != null; ) {
+            V current = node.value;
+            if (current == value || value.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return putValue(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return putValue(key, value, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return replaceNode(key, null, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return value != null && replaceNode(key, null, value) != null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (key == null || oldValue == null || newValue == null) {
+            throw new NullPointerException();
+        }
+        return replaceNode(key, newValue, oldValue) != null;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        return replaceNode(key, value, null);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (mappingFunction == null) {
+            throw new NullPointerException();
+        }
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        return remap(key, (k, old) -> mappingFunction.apply(k), true, false);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        return remap(key, remappingFunction, false, true);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        return remap(key, remappingFunction, true, true);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null || remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        return remap(key, (k, old) -> old == null ? value : remappingFunction.apply(old, value), true, true);
+    }
+
+    @Override
+    public void clear() {
+        long delta = 0;
+        int i = 0;
+        AtomicReferenceArray<Node<K, V>> table = nodes;
+        while (i < table.length()) {
+            Node<K, V> head = table.get(i);
+            if (head == null) {
+                i++;
+            } else if (head.hash == MOVED) {
+                table = helpTransfer(table, head);
+                i = 0;
+            } else {
+                synchronized (head) {
+                    if (table.get(i) == head) {
+                        for (Node<K, V> node = head.hash >= 0 ? head : null; node != null; node = node.next) {
+                            delta--;
+                        }
+                        table.set(i++, null);
+                    }
+                }
+            }
+        }
+        if (delta != 0) {
+            addCount(delta, false);
+        }
+    }
+
+    @Override
+    public int size() {
+        long sum = count.sum();
+        return sum < 0 ? 0 : sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count.sum() <= 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new ConcurrentHashMapIterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (o instanceof Map.Entry) {
+                    Map.Entry entry = (Entry) o;
+                    Object key = entry.getKey();
+                    Object value = entry.getValue();
+                    if (key == null || value == null) {
+                        return false;
+                    }
+                    V current = get(key);
+                    return current != null && (current == value || current.equals(value));
+                }
+                return false;
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (o instanceof Map.Entry) {
+                    Map.Entry entry = (Entry) o;
+                    Object key = entry.getKey();
+                    Object value = entry.getValue();
+                    return key != null && value != null && ConcurrentHashMap.this.remove(key, value);
+                }
+                return false;
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentHashMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentHashMap.this.clear();
+            }
+        };
+    }
+
+    private class ConcurrentHashMapIterator implements Iterator<Entry<K, V>> {
+        private final Traverser traverser = new Traverser(nodes);
+        private Node<K, V> next = traverser.advance();
+        private Node<K, V> current;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Node<K, V> node = next;
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            current = node;
+            next = traverser.advance();
+            return new MapEntry(node.key, node.value);
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentHashMap.this.remove(current.key);
+            current = null;
+        }
+    }
+
+    private class MapEntry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        MapEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (value == null) {
+                throw new NullPointerException();
+            }
+            V old = this.value;
+            this.value = value;
+            put(key, value);
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry entry = (Entry) o;
+            return key.equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private final class Traverser {
+        private AtomicReferenceArray<Node<K, V>> table;
+        private TableStack<K, V> stack;
+        private TableStack<K, V> spare;
+        private Node<K, V> next;
+        private int index;
+        private int baseIndex;
+        private final int baseSize;
+
+        Traverser(AtomicReferenceArray<Node<K, V>> table) {
+            this.table = table;
+            this.baseSize = table.length();
+        }
+
+        Node<K, V> advance() {
+            Node<K, V> node = next;
+            if (node != null) {
+                node = node.next;
+            }
+            for (; ; ) {
+                if (node != null) {
+                    return next = node;
+                }
+                AtomicReferenceArray<Node<K, V>> current = table;
+                int i = index;
+                int length;
+                if (baseIndex >= baseSize || current == null || (length = current.length()) <= i || i < 0) {
+                    return next = null;
+                }
+                if ((node = current.get(i)) != null && node.hash < 0) {
+                    if (node instanceof ForwardingNode) {
+                        table = ((ForwardingNode<K, V>) node).nextNodes;
+                        node = null;
+                        pushState(current, i, length);
+                        continue;
+                    }
+                    node = null;
+                }
+                if (stack != null) {
+                    recoverState(length);
+                } else if ((index = i + baseSize) >= length) {
+                    index = ++baseIndex;
+                }
+            }
+        }
+
+        private void pushState(AtomicReferenceArray<Node<K, V>> table, int index, int length) {
+            TableStack<K, V> state = spare;
+            if (state != null) {
+                spare = state.next;
+            } else {
+                state = new TableStack<>();
+            }
+            state.table = table;
+            state.length = length;
+            state.index = index;
+            state.next = stack;
+            stack = state;
+        }
+
+        private void recoverState(int length) {
+            TableStack<K, V> state;
+            int stateLength;
+            while ((state = stack) != null && (index += (stateLength = state.length)) >= length) {
+                length = stateLength;
+                index = state.index;
+                table = state.table;
+                state.table = null;
+                TableStack<K, V> next = state.next;
+                state.next = spare;
+                stack = next;
+                spare = state;
+            }
+            if (state == null && (index += baseSize) >= length) {
+                index = ++baseIndex;
+            }
+        }
+    }
+
+    private V putValue(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int hash = spread(key.hashCode());
+        int basketLength = 0;
+        AtomicReferenceArray<Node<K, V>> table = nodes;
+        for (; ; ) {
+            int index = (table.length() - 1) & hash;
+            Node<K, V> head = table.get(index);
+            if (head == null) {
+                if (table.compareAndSet(index, null, new Node<>(hash, key, value, null))) {
+                    break;
+                }
+            } else if (head.hash == MOVED) {
+                table = helpTransfer(table, head);
+            } else if (onlyIfAbsent && head.hash == hash && (head.key == key || head.key.equals(key))) {
+                return head.value;
+            } else {
+                V old = null;
+                synchronized (head) {
+                    if (table.get(index) == head) {
+                        if (head.hash < 0) {
+                            throw new IllegalStateException("Recursive update");
+                        }
+                        basketLength = 1;
+                        for (Node<K, V> node = head; ; basketLength++) {
+                            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                                old = node.value;
+                                if (!onlyIfAbsent) {
+                                    node.value = value;
+                                }
+                                break;
+                            }
+                            if (node.next == null) {
+                                node.next = new Node<>(hash, key, value, null);
+                                break;
+                            }
+                            node = node.next;
+                        }
+                    }
+                }
+                if (basketLength != 0) {
+                    if (old != null) {
+                        return old;
+                    }
+                    break;
+                }
+            }
+        }
+        addCount(1, true);
+        return null;
+    }
+
+    private V replaceNode(Object key, V value, Object expected) {
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> table = nodes;
+        for (; ; ) {
+            int index = (table.length() - 1) & hash;
+            Node<K, V> head = table.get(index);
+            if (head == null) {
+                return null;
+            }
+            if (head.hash == MOVED) {
+                table = helpTransfer(table, head);
+                continue;
+            }
+            V old = null;
+            boolean validated = false;
+            boolean removed = false;
+            synchronized (head) {
+                if (table.get(index) == head) {
+                    if (head.hash < 0) {
+                        throw new IllegalStateException("Recursive update");
+                    }
+                    validated = true;
+                    for (Node<K, V> node = head, previous = null; node != null; previous = node, node = node.next) {
+                        if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                            V current = node.value;
+                            if (expected == null || expected == current || expected.equals(current)) {
+                                old = current;
+                                if (value != null) {
+                                    node.value = value;
+                                } else if (previous != null) {
+                                    previous.next = node.next;
+                                    removed = true;
+                                } else {
+                                    table.set(index, node.next);
+                                    removed = true;
+                                }
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+            if (validated) {
+                if (removed) {
+                    addCount(-1, false);
+                }
+                return old;
+            }
+        }
+    }
+
+    private V remap(K key, BiFunction<? super K, ? super V, ? extends V> function,
+                    boolean whenAbsent, boolean whenPresent) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int hash = spread(key.hashCode());
+        int delta = 0;
+        V result = null;
+        AtomicReferenceArray<Node<K, V>> table = nodes;
+        for (; ; ) {
+            int index = (table.length() - 1) & hash;
+            Node<K, V> head = table.get(index);
+            if (head == null) {
+                if (!whenAbsent) {
+                    return null;
+                }
+                Node<K, V> reservation = new Node<>(RESERVED, null, null, null);
+                synchronized (reservation) {
+                    if (table.compareAndSet(index, null, reservation)) {
+                        Node<K, V> node = null;
+                        try {
+                            result = function.apply(key, null);
+                            if (result != null) {
+                                node = new Node<>(hash, key, result, null);
+                                delta = 1;
+                            }
+                        } finally {
+                            table.set(index, node);
+                        }
+                        break;
+                    }
+                }
+            } else if (head.hash == MOVED) {
+                table = helpTransfer(table, head);
+            } else {
+                boolean validated = false;
+                synchronized (head) {
+                    if (table.get(index) == head) {
+                        if (head.hash < 0) {
+                            throw new IllegalStateException("Recursive update");
+                        }
+                        validated = true;
+                        Node<K, V> previous = null;
+                        Node<K, V> node = head;
+                        for (; node != null; previous = node, node = node.next) {
+                            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                                break;
+                            }
+                        }
+                        if (node != null) {
+                            if (!whenPresent) {
+                                return node.value;
+                            }
+                            result = function.apply(key, node.value);
+                            if (result != null) {
+                                node.value = result;
+                            } else {
+                                delta = -1;
+                                if (previous != null) {
+                                    previous.next = node.next;
+                                } else {
+                                    table.set(index, node.next);
+                                }
+                            }
+                        } else if (whenAbsent) {
+                            result = function.apply(key, null);
+                            if (result != null) {
+                                previous.next = new Node<>(hash, key, result, null);
+                                delta = 1;
+                            }
+                        }
+                    }
+                }
+                if (validated) {
+                    break;
+                }
+            }
+        }
+        if (delta != 0) {
+            addCount(delta, delta > 0);
+        }
+        return result;
+    }
+
+    private void addCount(long delta, boolean check) {
+        count.add(delta);
+        if (!check) {
+            return;
+        }
+        long size = count.sum();
+        AtomicReferenceArray<Node<K, V>> table;
+        AtomicReferenceArray<Node<K, V>> next;
+        int sc;
+        int length;
+        while (size >= (long) (sc = sizeCtl.get()) && (length = (table = nodes).length()) < MAXIMUM_CAPACITY) {
+            int stamp = resizeStamp(length) << RESIZE_STAMP_SHIFT;
+            if (sc < 0) {
+                if (sc == stamp + MAX_RESIZERS || sc == stamp + 1
+                        || (next = nextNodes) == null || transferIndex.get() <= 0) {
+                    break;
+                }
+                if (sizeCtl.compareAndSet(sc, sc + 1)) {
+                    transfer(table, next);
+                }
+            } else if (sizeCtl.compareAndSet(sc, stamp + 2)) {
+                transfer(table, null);
+            }
+            size = count.sum();
+        }
+    }
+
+    private AtomicReferenceArray<Node<K, V>> helpTransfer(AtomicReferenceArray<Node<K, V>> table, Node<K, V> head) {
+        AtomicReferenceArray<Node<K, V>> next = ((ForwardingNode<K, V>) head).nextNodes;
+        int stamp = resizeStamp(table.length()) << RESIZE_STAMP_SHIFT;
+        int sc;
+        while (next == nextNodes && table == nodes && (sc = sizeCtl.get()) < 0) {
+            if (sc == stamp + MAX_RESIZERS || sc == stamp + 1 || transferIndex.get() <= 0) {
+                break;
+            }
+            if (sizeCtl.compareAndSet(sc, sc + 1)) {
+                transfer(table, next);
+                break;
+            }
+        }
+        return next;
+    }
+
+    private void transfer(AtomicReferenceArray<Node<K, V>> table, AtomicReferenceArray<Node<K, V>> next) {
+        int length = table.length();
+        int stride = NCPU > 1 ? (length >>> 3) / NCPU : length;
+        if (stride < MIN_TRANSFER_STRIDE) {
+            stride = MIN_TRANSFER_STRIDE;
+        }
+        if (next == null) {
+            next = new AtomicReferenceArray<>(length << 1);
+            nextNodes = next;
+            transferIndex.set(length);
+        }
+        ForwardingNode<K, V> forward = new ForwardingNode<>(next);
+        boolean advance = true;
+        boolean finishing = false;
+        for (int i = 0, bound = 0; ; ) {
+            while (advance) {
+                int nextIndex;
+                if (--i >= bound || finishing) {
+                    advance = false;
+                } else if ((nextIndex = transferIndex.get()) <= 0) {
+                    i = -1;
+                    advance = false;
+                } else {
+                    int nextBound = nextIndex > stride ? nextIndex - stride : 0;
+                    if (transferIndex.compareAndSet(nextIndex, nextBound)) {
+                        bound = nextBound;
+                        i = nextIndex - 1;
+                        advance = false;
+                    }
+                }
+            }
+            if (i < 0 || i >= length) {
+                if (finishing) {
+                    nextNodes = null;
+                    nodes = next;
+                    sizeCtl.set((length << 1) - (length >>> 1));
+                    return;
+                }
+                int sc = sizeCtl.get();
+                if (sizeCtl.compareAndSet(sc, sc - 1)) {
+                    if (sc - 2 != resizeStamp(length) << RESIZE_STAMP_SHIFT) {
+                        return;
+                    }
+                    finishing = true;
+                    advance = true;
+                    i = length;
+                }
+                continue;
+            }
+            Node<K, V> head = table.get(i);
+            if (head == null) {
+                advance = table.compareAndSet(i, null, forward);
+            } else if (head.hash == MOVED) {
+                advance = true;
+            } else {
+                synchronized (head) {
+                    if (table.get(i) == head) {
+                        if (head.hash == RESERVED) {
+                            throw new IllegalStateException("Recursive update");
+                        }
+                        splitBasket(head, length, next, i);
+                        table.set(i, forward);
+                        advance = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private void splitBasket(Node<K, V> head, int length, AtomicReferenceArray<Node<K, V>> next, int index) {
+        int runBit = head.hash & length;
+        Node<K, V> lastRun = head;
+        for (Node<K, V> node = head.next; node != null; node = node.next) {
+            int bit = node.hash & length;
+            if (bit != runBit) {
+                runBit = bit;
+                lastRun = node;
+            }
+        }
+        Node<K, V> low = runBit == 0 ? lastRun : null;
+        Node<K, V> high = runBit == 0 ? null : lastRun;
+        for (Node<K, V> node = head; node != lastRun; node = node.next) {
+            if ((node.hash & length) == 0) {
+                low = new Node<>(node.hash, node.key, node.value, low);
+            } else {
+                high = new Node<>(node.hash, node.key, node.value, high);
+            }
+        }
+        next.set(index, low);
+        next.set(index + length, high);
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & HASH_BITS;
+    }
+
+    private static int resizeStamp(int length) {
+        return Integer.numberOfLeadingZeros(length) | (1 << (RESIZE_STAMP_BITS - 1));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        return n >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        Node<K, V> find(int hash, Object key) {
+            return null;
+        }
+    }
+
+    private static class ForwardingNode<K, V> extends Node<K, V> {
+        private final AtomicReferenceArray<Node<K, V>> nextNodes;
+
+        ForwardingNode(AtomicReferenceArray<Node<K, V>> nextNodes) {
+            super(MOVED, null, null, null);
+            this.nextNodes = nextNodes;
+        }
+
+        @Override
+        Node<K, V> find(int hash, Object key) {
+            AtomicReferenceArray<Node<K, V>> table = nextNodes;
+            outer:
+            for (; ; ) {
+                Node<K, V> node = table.get((table.length() - 1) & hash);
+                while (node != null) {
+                    if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                        return node;
+                    }
+                    if (node.hash < 0) {
+                        if (node instanceof ForwardingNode) {
+                            table = ((ForwardingNode<K, V>) node).nextNodes;
+                            continue outer;
+                        }
+                        return node.find(hash, key);
+                    }
+                    node = node.next;
+                }
+                return null;
+            }
+        }
+    }
+
+    private static class TableStack<K, V> {
+        private AtomicReferenceArray<Node<K, V>> table;
+        private TableStack<K, V> next;
+        private int length;
+        private int index;
+    }
+}
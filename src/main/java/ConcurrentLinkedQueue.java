@@ -0,0 +1,227 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+public class ConcurrentLinkedQueue<T> extends AbstractQueue<T> {
+    private static final AtomicReferenceFieldUpdater<ConcurrentLinkedQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentLinkedQueue.class, Node.class, "head");
+    private static final AtomicReferenceFieldUpdater<ConcurrentLinkedQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentLinkedQueue.class, Node.class, "tail");
+    private volatile Node<T> head;
+    private volatile Node<T> tail;
+
+    public ConcurrentLinkedQueue() {
+        Node<T> dummy = new Node<>(null);
+        this.head = dummy;
+        this.tail = dummy;
+    }
+
+    public ConcurrentLinkedQueue(Collection<? extends T> collection) {
+        this();
+        addAll(collection);
+    }
+
+    @Override
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        Node<T> node = new Node<>(element);
+        while (true) {
+            Node<T> last = tail;
+            Node<T> next = last.next;
+            if (last != tail) {
+                continue;
+            }
+            if (next != null) {
+                TAIL.compareAndSet(this, last, next);
+            } else if (Node.NEXT.compareAndSet(last, null, node)) {
+                TAIL.compareAndSet(this, last, node);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        while (true) {
+            Node<T> first = head;
+            Node<T> last = tail;
+            Node<T> next = first.next;
+            if (first != head) {
+                continue;
+            }
+            if (next == null) {
+                return null;
+            }
+            if (first == last) {
+                TAIL.compareAndSet(this, last, next);
+            } else if (HEAD.compareAndSet(this, first, next)) {
+                T element = next.value;
+                if (element != null && Node.VALUE.compareAndSet(next, element, null)) {
+                    return element;
+                }
+            }
+        }
+    }
+
+    @Override
+    public T peek() {
+        for (Node<T> node = head.next; node != null; node = node.next) {
+            T element = node.value;
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    @Override
+    public int size() {
+        int count = 0;
+        for (Node<T> node = head.next; node != null && count < Integer.MAX_VALUE; node = node.next) {
+            if (node.value != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int drainTo(Collection<? super T> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    public int drainTo(Collection<? super T> collection, int maxElements) {
+        if (collection == null) {
+            throw new NullPointerException();
+        }
+        if (collection == this) {
+            throw new IllegalArgumentException();
+        }
+        int drained = 0;
+        while (drained < maxElements) {
+            Node<T> first = head;
+            Node<T> last = tail;
+            if (first != head) {
+                continue;
+            }
+            if (first == last) {
+                Node<T> next = last.next;
+                if (next == null) {
+                    break;
+                }
+                TAIL.compareAndSet(this, last, next);
+                continue;
+            }
+            Node<T> end = first;
+            int count = 0;
+            while (end != last && drained + count < maxElements) {
+                end = end.next;
+                if (end.value != null) {
+                    count++;
+                }
+            }
+            if (!HEAD.compareAndSet(this, first, end)) {
+                continue;
+            }
+            for (Node<T> node = first.next; ; node = node.next) {
+                T element = node.value;
+                if (element != null && Node.VALUE.compareAndSet(node, element, null)) {
+                    collection.add(element);
+                    drained++;
+                }
+                if (node == end) {
+                    break;
+                }
+            }
+        }
+        return drained;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator<T> {
+        private Node<T> nextNode;
+        private Node<T> nextPrevious;
+        private T nextElement;
+        private Node<T> lastNode;
+        private Node<T> lastPrevious;
+
+        Itr() {
+            advance(head);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public T next() {
+            T element = nextElement;
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            lastNode = nextNode;
+            lastPrevious = nextPrevious;
+            advance(nextNode);
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            Node<T> node = lastNode;
+            if (node == null) {
+                throw new IllegalStateException();
+            }
+            lastNode = null;
+            T element = node.value;
+            if (element != null && Node.VALUE.compareAndSet(node, element, null)) {
+                unlink(lastPrevious, node);
+            }
+        }
+
+        private void advance(Node<T> from) {
+            Node<T> previous = from;
+            for (Node<T> node = from.next; node != null; previous = node, node = node.next) {
+                T element = node.value;
+                if (element != null) {
+                    nextPrevious = previous;
+                    nextNode = node;
+                    nextElement = element;
+                    return;
+                }
+            }
+            nextPrevious = null;
+            nextNode = null;
+            nextElement = null;
+        }
+    }
+
+    private void unlink(Node<T> previous, Node<T> node) {
+        Node<T> next = node.next;
+        if (next != null) {
+            Node.NEXT.compareAndSet(previous, node, next);
+        }
+    }
+
+    private static class Node<E> {
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+        private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+        private volatile E value;
+        private volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
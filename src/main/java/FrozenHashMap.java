@@ -0,0 +1,316 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+
+public final class FrozenHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private static final int BUCKET_SIZE = 4;
+    private static final double FILL = 0.9;
+    private static final int MAX_SEED = 1 << 14;
+    private static final int OVERFLOW = -1;
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] seeds;
+    private final Object[] overflowKeys;
+    private final Object[] overflowValues;
+    private final boolean hasNullKey;
+    private final V nullValue;
+    private final int size;
+    private Set<Entry<K, V>> entrySet;
+
+    public FrozenHashMap(Map<? extends K, ? extends V> map) {
+        int count = map.size();
+        Object[] entryKeys = new Object[count];
+        Object[] entryValues = new Object[count];
+        Object[] nullEntry = new Object[2];
+        int[] filled = new int[1];
+        map.forEach((key, value) -> {
+            if (key == null) {
+                nullEntry[0] = Boolean.TRUE;
+                nullEntry[1] = value;
+            } else {
+                entryKeys[filled[0]] = key;
+                entryValues[filled[0]] = value;
+                filled[0]++;
+            }
+        });
+        int n = filled[0];
+
+        int[] hashes = new int[n];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = spread(entryKeys[i].hashCode());
+        }
+        int bucketCount = Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        int tableSize = Math.max(1, (int) Math.ceil(n / FILL));
+
+        int[] bucketStart = new int[bucketCount + 1];
+        for (int i = 0; i < n; i++) {
+            bucketStart[reduce(hashes[i], bucketCount) + 1]++;
+        }
+        int maxBucketSize = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            maxBucketSize = Math.max(maxBucketSize, bucketStart[b + 1]);
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] members = new int[n];
+        int[] cursor = Arrays.copyOf(bucketStart, bucketCount);
+        for (int i = 0; i < n; i++) {
+            members[cursor[reduce(hashes[i], bucketCount)]++] = i;
+        }
+
+        int[] order = new int[bucketCount];
+        int[] sizeStart = new int[maxBucketSize + 2];
+        for (int b = 0; b < bucketCount; b++) {
+            sizeStart[maxBucketSize - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+        }
+        for (int s = 0; s <= maxBucketSize; s++) {
+            sizeStart[s + 1] += sizeStart[s];
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            order[sizeStart[maxBucketSize - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+        }
+
+        Object[] tableKeys = new Object[tableSize];
+        Object[] tableValues = new Object[tableSize];
+        int[] bucketSeeds = new int[bucketCount];
+        int[] slots = new int[maxBucketSize];
+        int[] overflow = new int[n];
+        int overflowCount = 0;
+        for (int b : order) {
+            int from = bucketStart[b];
+            int length = bucketStart[b + 1] - from;
+            if (length == 0) {
+                continue;
+            }
+            int seed = findSeed(hashes, members, from, length, tableKeys, slots);
+            if (seed == OVERFLOW) {
+                for (int j = 0; j < length; j++) {
+                    overflow[overflowCount++] = members[from + j];
+                }
+            } else {
+                for (int j = 0; j < length; j++) {
+                    int entry = members[from + j];
+                    tableKeys[slots[j]] = entryKeys[entry];
+                    tableValues[slots[j]] = entryValues[entry];
+                }
+            }
+            bucketSeeds[b] = seed;
+        }
+
+        int overflowLength = overflowCount == 0 ? 0 : Integer.highestOneBit(overflowCount * 2 - 1) << 1;
+        Object[] extraKeys = new Object[overflowLength];
+        Object[] extraValues = new Object[overflowLength];
+        for (int j = 0; j < overflowCount; j++) {
+            int entry = overflow[j];
+            int index = hashes[entry] & (overflowLength - 1);
+            while (extraKeys[index] != null) {
+                index = (index + 1) & (overflowLength - 1);
+            }
+            extraKeys[index] = entryKeys[entry];
+            extraValues[index] = entryValues[entry];
+        }
+
+        this.keys = tableKeys;
+        this.values = tableValues;
+        this.seeds = bucketSeeds;
+        this.overflowKeys = extraKeys;
+        this.overflowValues = extraValues;
+        this.hasNullKey = nullEntry[0] != null;
+        this.nullValue = (V) nullEntry[1];
+        this.size = n + (hasNullKey ? 1 : 0);
+    }
+
+    @Override
+    public V get(Object key) {
+        int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        if (index == -2) {
+            return nullValue;
+        }
+        return (V) (index >= 0 ? values[index] : overflowValues[~index - 2]);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) != -1;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && Objects.equals(values[i], value)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < overflowKeys.length; i++) {
+            if (overflowKeys[i] != null && Objects.equals(overflowValues[i], value)) {
+                return true;
+            }
+        }
+        return hasNullKey && Objects.equals(nullValue, value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+        for (int i = 0; i < overflowKeys.length; i++) {
+            if (overflowKeys[i] != null) {
+                action.accept((K) overflowKeys[i], (V) overflowValues[i]);
+            }
+        }
+        if (hasNullKey) {
+            action.accept(null, nullValue);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> view = entrySet;
+        if (view == null) {
+            view = new EntrySet();
+            entrySet = view;
+        }
+        return view;
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return hasNullKey ? -2 : -1;
+        }
+        int hash = spread(key.hashCode());
+        int seed = seeds[reduce(hash, seeds.length)];
+        if (seed != OVERFLOW) {
+            int slot = reduce(mix(hash, seed), keys.length);
+            Object current = keys[slot];
+            return current != null && (current == key || current.equals(key)) ? slot : -1;
+        }
+
+        int mask = overflowKeys.length - 1;
+        int index = hash & mask;
+        Object current;
+        while ((current = overflowKeys[index]) != null) {
+            if (current == key || current.equals(key)) {
+                return ~index - 2;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int findSeed(int[] hashes, int[] members, int from, int length, Object[] table, int[] slots) {
+        for (int seed = 0; seed < MAX_SEED; seed++) {
+            int placed = 0;
+            for (; placed < length; placed++) {
+                int slot = reduce(mix(hashes[members[from + placed]], seed), table.length);
+                if (table[slot] != null || contains(slots, placed, slot)) {
+                    break;
+                }
+                slots[placed] = slot;
+            }
+            if (placed == length) {
+                return seed;
+            }
+        }
+        return OVERFLOW;
+    }
+
+    private static boolean contains(int[] slots, int length, int slot) {
+        for (int i = 0; i < length; i++) {
+            if (slots[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * GOLDEN_RATIO;
+        return h ^ (h >>> 16);
+    }
+
+    private static int mix(int hash, int seed) {
+        int h = hash ^ (seed * 0x85EBCA6B);
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        h *= 0x846CA68B;
+        return h ^ (h >>> 16);
+    }
+
+    private static int reduce(int hash, int length) {
+        return (int) (((hash & 0xFFFFFFFFL) * length) >>> 32);
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<Entry<K, V>>() {
+                private int index = -1;
+                private Entry<K, V> next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<K, V> entry = next;
+                    next = advance();
+                    return entry;
+                }
+
+                private Entry<K, V> advance() {
+                    while (++index < keys.length + overflowKeys.length) {
+                        if (index < keys.length) {
+                            if (keys[index] != null) {
+                                return new SimpleImmutableEntry<>((K) keys[index], (V) values[index]);
+                            }
+                        } else if (overflowKeys[index - keys.length] != null) {
+                            int i = index - keys.length;
+                            return new SimpleImmutableEntry<>((K) overflowKeys[i], (V) overflowValues[i]);
+                        }
+                    }
+                    if (index == keys.length + overflowKeys.length && hasNullKey) {
+                        return new SimpleImmutableEntry<>(null, nullValue);
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Map.Entry) {
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                Object key = entry.getKey();
+                return containsKey(key) && Objects.equals(get(key), entry.getValue());
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,194 +1,364 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
     private static final double STEP_INCREASE = 1.5;
+    private static final int MIGRATION_STEP = 4;
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    private static final int MIN_TREEIFY_CAPACITY = 64;
+    private static final int MAXIMUM_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int BATCH_WINDOW = 16;
     private final double LOAD_FACTOR;
+    private final double shrinkLoadFactor;
+    private final boolean incrementalResize;
+    private final int minimumCapacity;
     private Node<K, V>[] nodes;
-    private long version;
+    private Node<K, V>[] oldNodes;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+    private int migrationIndex;
+    private long pinnedVersion = -1;
+    private int shrinkThreshold;
+    private Recorder stats;
+    private ForkJoinPool parallelPool;
+    private long treeSequence;
+    long version;
     private int capacity;
     private int size;
 
     public HashMap() {
-        this.capacity = 16;
-        this.LOAD_FACTOR = 0.75;
-        this.nodes = (Node<K, V>[]) new Node[capacity];
+        this(16, 0.75);
     }
 
     public HashMap(int capacity) {
-        this();
-        this.capacity = capacity;
+        this(capacity, 0.75);
     }
 
     public HashMap(int capacity, double loadFactor) {
-        this.capacity = capacity;
-        this.LOAD_FACTOR = loadFactor;
-        this.nodes = (Node<K, V>[]) new Node[capacity];
+        this(capacity, loadFactor, false);
     }
 
-    @Override
-    public V put(K key, V value) {
-        reBuild();
-        int index = getIndexEntry(key);
-
-        Node<K, V> newNode = new Node<>(key, value);
-        Node<K, V> head = nodes[index];
+    public HashMap(int capacity, double loadFactor, boolean incrementalResize) {
+        this(capacity, loadFactor, incrementalResize, 0);
+    }
 
-        if (head == null) {
-            nodes[index] = newNode;
-            size++;
-            version++;
-            return null;
+    public HashMap(int capacity, double loadFactor, boolean incrementalResize, double shrinkLoadFactor) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
         }
+        if (shrinkLoadFactor < 0 || shrinkLoadFactor >= loadFactor || Double.isNaN(shrinkLoadFactor)) {
+            throw new IllegalArgumentException("Illegal shrink load factor: " + shrinkLoadFactor);
+        }
+        this.capacity = Math.max(capacity, 1);
+        this.minimumCapacity = this.capacity;
+        this.LOAD_FACTOR = loadFactor;
+        this.shrinkLoadFactor = shrinkLoadFactor;
+        this.incrementalResize = incrementalResize;
+        this.nodes = (Node<K, V>[]) new Node[this.capacity];
+        this.shrinkThreshold = (int) (this.capacity * shrinkLoadFactor);
+    }
+
+    public static <K, V> HashMap<K, V> fromParallel(K[] keys, V[] values) {
+        return fromParallel(keys, values, ForkJoinPool.commonPool());
+    }
 
-        if (key == null) {
-            return addNull(newNode);
+    public static <K, V> HashMap<K, V> fromParallel(K[] keys, V[] values, ForkJoinPool pool) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        HashMap<K, V> map = new HashMap<>((int) Math.min((long) Math.ceil(keys.length / 0.75) + 1, MAXIMUM_CAPACITY));
+        if (keys.length < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            for (int i = 0; i < keys.length; i++) {
+                map.put(keys[i], values[i]);
+            }
         } else {
-            return addNotNull(newNode);
+            map.buildParallel(keys, values, pool);
+        }
+        return map;
+    }
+
+    public static <K, V> HashMap<K, V> fromParallel(Stream<? extends Entry<? extends K, ? extends V>> entries) {
+        return fromParallel(entries, ForkJoinPool.commonPool());
+    }
+
+    public static <K, V> HashMap<K, V> fromParallel(Stream<? extends Entry<? extends K, ? extends V>> entries,
+                                                    ForkJoinPool pool) {
+        Entry<? extends K, ? extends V>[] array = entries.toArray(Entry[]::new);
+        K[] keys = (K[]) new Object[array.length];
+        V[] values = (V[]) new Object[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = array[i].getKey();
+            values[i] = array[i].getValue();
         }
+        return fromParallel(keys, values, pool);
     }
 
     @Override
-    public V get(Object key) {
-        Node<K, V> node = find((K) key);
-        return node != null ? node.value : null;
+    public V put(K key, V value) {
+        migrate();
+        return putValue(hash(key), key, value);
     }
 
     @Override
-    public V remove(Object key) {
-        Node<K, V> head = nodes[getIndexEntry(key)];
-        if (head == null) {
+    public V get(Object key) {
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (stats != null) {
+            stats.recordLookup(node != null);
+        }
+        if (node == null) {
             return null;
         }
+        afterNodeAccess(node);
+        return node.value;
+    }
 
-        Node<K, V> previous = null;
-        Node<K, V> cursor = head;
-        Node<K, V> next = head.next;
-
-        while (cursor != null) {
-            if (cursor.key.hashCode() == key.hashCode() && cursor.key.equals(key)) {
-                if (previous == null) {
-                    V old = cursor.value;
-                    nodes[getIndexEntry(key)] = next;
-                    size--;
-                    version++;
-                    return old;
-                }
-
-                V old = cursor.value;
-                previous.next = next;
-                size--;
-                version++;
-                return old;
-            }
-            previous = cursor;
-            cursor = cursor.next;
-            next = cursor.next;
-        }
-        return null;
+    @Override
+    public V remove(Object key) {
+        migrate();
+        Node<K, V> node = removeNode(key, true);
+        return node != null ? node.value : null;
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return get(key) != null;
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (stats != null) {
+            stats.recordLookup(node != null);
+        }
+        return node != null;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return values().contains(value);
+        if (containsValue(nodes, 0, value)) {
+            return true;
+        }
+        return oldNodes != null && containsValue(oldNodes, migrationIndex, value);
     }
 
     @Override
     public void clear() {
-        for (int i = 0; i < nodes.length; i++) {
-            nodes[i] = null;
+        if (shrinkLoadFactor > 0 && capacity > minimumCapacity) {
+            clear(minimumCapacity);
+            return;
+        }
+        Arrays.fill(nodes, null);
+        oldNodes = null;
+        migrationIndex = 0;
+        size = 0;
+        version++;
+    }
+
+    public void clear(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
         }
+        this.capacity = Math.max(capacity, 1);
+        nodes = (Node<K, V>[]) new Node[this.capacity];
+        shrinkThreshold = (int) (this.capacity * shrinkLoadFactor);
+        oldNodes = null;
+        migrationIndex = 0;
         size = 0;
         version++;
     }
 
+    public void trimToSize() {
+        int newCapacity = (int) Math.min((long) Math.ceil(size / LOAD_FACTOR) + 1, MAXIMUM_CAPACITY);
+        if (newCapacity < capacity) {
+            resize(newCapacity);
+        } else {
+            completeMigration();
+        }
+        version++;
+    }
+
     @Override
     public Collection<V> values() {
-        List<V> values = new ArrayList<>();
-        for (Entry<K, V> entry : entrySet()) {
-            values.add(entry.getValue());
+        Collection<V> view = values;
+        if (view == null) {
+            view = new Values();
+            values = view;
+        }
+        return view;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> view = keySet;
+        if (view == null) {
+            view = new KeySet();
+            keySet = view;
         }
-        return values;
+        return view;
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        return new AbstractSet<Entry<K, V>>() {
+        Set<Entry<K, V>> view = entrySet;
+        if (view == null) {
+            view = new EntrySet();
+            entrySet = view;
+        }
+        return view;
+    }
 
-            @Override
-            public Iterator<Entry<K, V>> iterator() {
-                return new HashMapIterator();
-            }
+    private class KeySet extends AbstractSet<K> {
 
-            @Override
-            public boolean contains(Object o) {
-                if (o instanceof Map.Entry) {
-                    Map.Entry entry = (Entry) o;
-                    K key = (K) entry.getKey();
-                    V value = (V) entry.getValue();
-                    return containsKey(key) && containsValue(value);
-                }
-                return false;
-            }
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator();
+        }
 
-            @Override
-            public boolean remove(Object o) {
-                if (o instanceof Map.Entry) {
-                    Map.Entry entry = (Entry) o;
-                    K key = (K) entry.getKey();
-                    if (HashMap.this.containsKey(key)) {
-                        HashMap.this.remove(key);
-                        return true;
-                    }
-                }
-                return false;
-            }
+        @Override
+        public Spliterator<K> spliterator() {
+            pinnedVersion = version;
+            return new KeySpliterator(nodes, oldNodes, migrationIndex, 0, iterationFence(), size, true, version);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            migrate();
+            return removeNode(o, true) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            HashMap.this.clear();
+        }
+    }
+
+    private class Values extends AbstractCollection<V> {
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            pinnedVersion = version;
+            return new ValueSpliterator(nodes, oldNodes, migrationIndex, 0, iterationFence(), size, true, version);
+        }
 
-            @Override
-            public int size() {
-                return size;
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            HashMap.this.clear();
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> spliterator() {
+            pinnedVersion = version;
+            return new EntrySpliterator(nodes, oldNodes, migrationIndex, 0, iterationFence(), size, true, version);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Map.Entry) {
+                Map.Entry entry = (Entry) o;
+                Object key = entry.getKey();
+                migrate();
+                Node<K, V> node = find(hash(key), key);
+                return node != null && Objects.equals(node.value, entry.getValue());
             }
+            return false;
+        }
 
-            @Override
-            public void clear() {
-                HashMap.this.clear();
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                removeNode(((Entry) o).getKey(), true);
+                return true;
             }
-        };
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            HashMap.this.clear();
+        }
     }
 
-    private class HashMapIterator implements Iterator<Entry<K, V>> {
+    private abstract class HashMapIterator<E> implements Iterator<E> {
+        final Node<K, V>[] table = nodes;
+        final Node<K, V>[] oldTable = oldNodes;
+        final int oldOrigin = migrationIndex;
+        final int fence = iterationFence();
         int basketIndex = -1;
         Node<K, V> current;
         Node<K, V> next;
-        int iterationIndex = -1;
         boolean throwException = true;
         long versionIterator = version;
 
         HashMapIterator() {
+            pinnedVersion = version;
             changeBasket();
         }
 
         @Override
         public boolean hasNext() {
-            return next != null || changeBasket();
+            return next != null;
         }
 
-        @Override
-        public Entry<K, V> next() {
+        Node<K, V> nextNode() {
             checkLastModified();
 
             if (next == null) {
-                if (!changeBasket()) {
-                    return null;
-                }
+                throw new NoSuchElementException();
             }
-            iterationIndex++;
             current = next;
             next = next.next;
+            if (next == null) {
+                changeBasket();
+            }
             throwException = false;
             return current;
         }
@@ -200,209 +370,1458 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
             if (throwException) {
                 throw new IllegalStateException();
             }
-            if (current != null) {
-                HashMap.this.remove(current.key);
-                versionIterator = version;
-                throwException = true;
-            }
+            removeNode(current.key, false);
+            versionIterator = version;
+            pinnedVersion = version;
+            throwException = true;
         }
 
-        private boolean changeBasket() {
-            while (next == null && basketIndex < capacity - 1) {
+        private void changeBasket() {
+            while (next == null && basketIndex < fence - 1) {
                 basketIndex++;
-                next = nodes[basketIndex];
-                iterationIndex = -1;
-                if (next != null) {
-                    return true;
-                }
+                next = basket(table, oldTable, oldOrigin, basketIndex);
             }
-            return false;
         }
 
         private void checkLastModified() {
             if (versionIterator != version) {
-                throw new ConcurrentModificationException();
+                throw concurrentModification();
             }
         }
     }
 
-    @Override
-    public int size() {
-        return size;
-    }
+    private class KeyIterator extends HashMapIterator<K> {
 
-    @Override
-    public boolean isEmpty() {
-        return size() == 0;
+        @Override
+        public K next() {
+            return nextNode().key;
+        }
     }
 
-    @Override
-    public void putAll(Map<? extends K, ? extends V> m) {
-        Iterator<? extends K> keys = m.keySet().iterator();
-        Iterator<? extends V> values = m.values().iterator();
+    private class ValueIterator extends HashMapIterator<V> {
 
-        for (int i = 0; i < m.size(); i++) {
-            put(keys.next(), values.next());
+        @Override
+        public V next() {
+            return nextNode().value;
         }
     }
 
-    @Override
-    public Set<K> keySet() {
-        TreeSet<K> keys = new TreeSet<>();
-        for (Entry<K, V> entry : entrySet()) {
-            keys.add(entry.getKey());
-        }
-        return keys;
-    }
+    private class EntryIterator extends HashMapIterator<Entry<K, V>> {
 
-    @Override
-    public V replace(K key, V value) {
-        if (containsKey(key)) {
-            return put(key, value);
+        @Override
+        public Entry<K, V> next() {
+            return nextNode();
         }
-        return null;
     }
 
-    private Node<K, V> find(K key) {
-        Node<K, V> head = nodes[getIndexEntry(key)];
-        if (head == null) {
-            return null;
-        }
-        if (key == null) {
-            return findNull();
-        } else {
-            return findNotNull(key);
+    private abstract class HashMapSpliterator<E> implements Spliterator<E> {
+        final Node<K, V>[] table;
+        final Node<K, V>[] oldTable;
+        final int oldOrigin;
+        final long expectedVersion;
+        Node<K, V> current;
+        int index;
+        int fence;
+        int estimate;
+        boolean exact;
+
+        HashMapSpliterator(Node<K, V>[] table, Node<K, V>[] oldTable, int oldOrigin, int origin, int fence,
+                           int estimate, boolean exact, long expectedVersion) {
+            this.table = table;
+            this.oldTable = oldTable;
+            this.oldOrigin = oldOrigin;
+            this.index = origin;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+            this.expectedVersion = expectedVersion;
         }
-    }
 
-    private Node<K, V> findNull() {
-        Node<K, V> cursor = nodes[0];
+        abstract E element(Node<K, V> node);
 
-        while (cursor != null) {
-            if (cursor.key == null) {
-                return cursor;
+        abstract HashMapSpliterator<E> split(int origin, int fence, int estimate);
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (index >= middle || current != null) {
+                return null;
             }
-            cursor = cursor.next;
+            estimate >>>= 1;
+            exact = false;
+            HashMapSpliterator<E> prefix = split(index, middle, estimate);
+            index = middle;
+            return prefix;
         }
-        return null;
-    }
 
-    private V addNull(Node<K, V> node) {
-        Node<K, V> cursor = nodes[getIndexEntry(node.key)];
-
-        while (cursor != null) {
-            if (cursor.key == null) {
-                V old = cursor.value;
-                cursor.value = node.value;
-                version++;
-                return old;
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) {
+                throw new NullPointerException();
             }
-            if (cursor.hasNext()) {
-                cursor = cursor.next;
-            } else {
-                cursor.next = node;
-                size++;
-                version++;
-                return null;
+            while (current != null || index < fence) {
+                if (current == null) {
+                    current = basket(table, oldTable, oldOrigin, index++);
+                } else {
+                    Node<K, V> node = current;
+                    current = current.next;
+                    action.accept(element(node));
+                    checkLastModified();
+                    return true;
+                }
             }
+            return false;
         }
-        throw new IllegalArgumentException();
-    }
 
-    private V addNotNull(Node<K, V> node) {
-        Node<K, V> cursor = nodes[getIndexEntry(node.key)];
-        while (cursor != null) {
-            if (cursor.key.hashCode() == node.key.hashCode()
-                    && cursor.key.equals(node.key)) {
-                V old = cursor.value;
-                cursor.value = node.value;
-                version++;
-                return old;
-            } else {
-                if (cursor.hasNext()) {
-                    cursor = cursor.next;
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            Node<K, V>[] table = this.table;
+            Node<K, V>[] oldTable = this.oldTable;
+            Node<K, V> cursor = current;
+            int i = index;
+            int end = fence;
+            current = null;
+            index = end;
+            while (cursor != null || i < end) {
+                if (cursor == null) {
+                    cursor = basket(table, oldTable, oldOrigin, i++);
                 } else {
-                    cursor.next = node;
-                    version++;
-                    size++;
-                    return null;
+                    action.accept(element(cursor));
+                    cursor = cursor.next;
                 }
             }
+            checkLastModified();
         }
-        throw new IllegalArgumentException();
-    }
 
-    private Node<K, V> findNotNull(K key) {
-        Node node = nodes[getIndexEntry(key)];
-        while (node != null) {
-            if (node.key.hashCode() == key.hashCode() && node.key.equals(key)) {
-                return node;
-            }
-            node = node.next;
+        @Override
+        public long estimateSize() {
+            return estimate;
         }
-        return null;
-    }
 
-    private int getIndexEntry(Object key) {
-        if (key == null) {
-            return 0;
-        } else {
-            return Math.abs(key.hashCode() % capacity);
+        @Override
+        public int characteristics() {
+            return exact ? Spliterator.SIZED : 0;
+        }
+
+        private void checkLastModified() {
+            if (expectedVersion != version) {
+                throw concurrentModification();
+            }
         }
     }
 
-    private void reBuild() {
-        if (((double) size / capacity) >= LOAD_FACTOR) {
-            Node<K, V>[] old = nodes;
+    private class KeySpliterator extends HashMapSpliterator<K> {
+
+        KeySpliterator(Node<K, V>[] table, Node<K, V>[] oldTable, int oldOrigin, int origin, int fence, int estimate,
+                       boolean exact, long expectedVersion) {
+            super(table, oldTable, oldOrigin, origin, fence, estimate, exact, expectedVersion);
+        }
 
-            capacity *= STEP_INCREASE;
-            nodes = (Node<K, V>[]) new Node[capacity];
+        @Override
+        K element(Node<K, V> node) {
+            return node.key;
+        }
 
-            for (Node<K, V> entry : old) {
-                put(entry.getKey(), entry.getValue());
-                size--;
-            }
+        @Override
+        HashMapSpliterator<K> split(int origin, int fence, int estimate) {
+            return new KeySpliterator(table, oldTable, oldOrigin, origin, fence, estimate, false, expectedVersion);
         }
 
+        @Override
+        public int characteristics() {
+            return super.characteristics() | Spliterator.DISTINCT;
+        }
     }
 
-    private static class Node<K, V> implements Map.Entry<K, V> {
-        private Node<K, V> next;
-        private K key;
-        private V value;
+    private class ValueSpliterator extends HashMapSpliterator<V> {
 
-        Node(K key, V value) {
-            this.value = value;
-            this.key = key;
+        ValueSpliterator(Node<K, V>[] table, Node<K, V>[] oldTable, int oldOrigin, int origin, int fence, int estimate,
+                         boolean exact, long expectedVersion) {
+            super(table, oldTable, oldOrigin, origin, fence, estimate, exact, expectedVersion);
         }
 
-        boolean hasNext() {
-            return next != null;
+        @Override
+        V element(Node<K, V> node) {
+            return node.value;
         }
 
         @Override
-        public K getKey() {
-            return key;
+        HashMapSpliterator<V> split(int origin, int fence, int estimate) {
+            return new ValueSpliterator(table, oldTable, oldOrigin, origin, fence, estimate, false, expectedVersion);
+        }
+    }
+
+    private class EntrySpliterator extends HashMapSpliterator<Entry<K, V>> {
+
+        EntrySpliterator(Node<K, V>[] table, Node<K, V>[] oldTable, int oldOrigin, int origin, int fence, int estimate,
+                         boolean exact, long expectedVersion) {
+            super(table, oldTable, oldOrigin, origin, fence, estimate, exact, expectedVersion);
         }
 
         @Override
-        public V getValue() {
-            return value;
+        Entry<K, V> element(Node<K, V> node) {
+            return node;
         }
 
         @Override
-        public V setValue(V value) {
-            V old = this.value;
-            this.value = value;
-            return old;
+        HashMapSpliterator<Entry<K, V>> split(int origin, int fence, int estimate) {
+            return new EntrySpliterator(table, oldTable, oldOrigin, origin, fence, estimate, false, expectedVersion);
         }
 
         @Override
-        public String toString() {
-            return "Node{" +
-                    "key=" + key +
-                    ", value=" + value +
-                    '}';
+        public int characteristics() {
+            return super.characteristics() | Spliterator.DISTINCT;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        int count = m.size();
+        if (count == 0 || m == this) {
+            return;
+        }
+
+        if (m instanceof HashMap) {
+            HashMap<? extends K, ? extends V> source = (HashMap<? extends K, ? extends V>) m;
+            if (size == 0 && source.oldNodes == null && ((double) count / source.capacity) < LOAD_FACTOR) {
+                oldNodes = null;
+                migrationIndex = 0;
+                capacity = source.capacity;
+                nodes = (Node<K, V>[]) new Node[capacity];
+                shrinkThreshold = (int) (capacity * shrinkLoadFactor);
+                copyBaskets(source.nodes);
+                return;
+            }
+            ensureCapacity(size + count);
+            completeMigration();
+            putAll(source.nodes, 0);
+            if (source.oldNodes != null) {
+                putAll(source.oldNodes, source.migrationIndex);
+            }
+            return;
+        }
+
+        ensureCapacity(size + count);
+        completeMigration();
+        for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            K key = entry.getKey();
+            putValue(hash(key), key, entry.getValue());
+        }
+    }
+
+    public void putAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        ensureCapacity(size + keys.length);
+        completeMigration();
+        int[] hashes = new int[BATCH_WINDOW];
+        int[] indexes = new int[BATCH_WINDOW];
+        Node<K, V>[] heads = (Node<K, V>[]) new Node[BATCH_WINDOW];
+        for (int from = 0; from < keys.length; from += BATCH_WINDOW) {
+            int count = Math.min(BATCH_WINDOW, keys.length - from);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = hash(keys[from + i]);
+                indexes[i] = getIndexEntry(hashes[i], capacity);
+            }
+            Node<K, V>[] table = nodes;
+            for (int i = 0; i < count; i++) {
+                heads[i] = table[indexes[i]];
+            }
+            for (int i = 0; i < count; i++) {
+                K key = keys[from + i];
+                Node<K, V> node = findInChain(heads[i], hashes[i], key);
+                heads[i] = null;
+                if (node != null) {
+                    node.value = values[from + i];
+                    version++;
+                    afterNodeAccess(node);
+                    continue;
+                }
+
+                long expectedVersion = version + 1;
+                addNewNode(hashes[i], key, values[from + i]);
+                if (version != expectedVersion || table != nodes) {
+                    completeMigration();
+                    table = nodes;
+                    for (int j = i + 1; j < count; j++) {
+                        indexes[j] = getIndexEntry(hashes[j], capacity);
+                        heads[j] = table[indexes[j]];
+                    }
+                } else {
+                    for (int j = i + 1; j < count; j++) {
+                        if (indexes[j] == indexes[i]) {
+                            heads[j] = table[indexes[i]];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public int getAll(K[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output is shorter than keys: " + out.length + " < " + keys.length);
+        }
+        migrate();
+        int[] hashes = new int[BATCH_WINDOW];
+        Node<K, V>[] heads = (Node<K, V>[]) new Node[BATCH_WINDOW];
+        int found = 0;
+        for (int from = 0; from < keys.length; from += BATCH_WINDOW) {
+            int count = Math.min(BATCH_WINDOW, keys.length - from);
+            for (int i = 0; i < count; i++) {
+                hashes[i] = hash(keys[from + i]);
+            }
+            Node<K, V>[] table = nodes;
+            for (int i = 0; i < count; i++) {
+                heads[i] = table[getIndexEntry(hashes[i], capacity)];
+            }
+            for (int i = 0; i < count; i++) {
+                K key = keys[from + i];
+                Node<K, V> node = findInChain(heads[i], hashes[i], key);
+                if (node == null && oldNodes != null) {
+                    node = find(hashes[i], key);
+                }
+                heads[i] = null;
+                if (stats != null) {
+                    stats.recordLookup(node != null);
+                }
+                if (node == null) {
+                    out[from + i] = null;
+                } else {
+                    afterNodeAccess(node);
+                    out[from + i] = node.value;
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (node == null) {
+            return null;
+        }
+        V old = node.value;
+        node.value = value;
+        version++;
+        afterNodeAccess(node);
+        return old;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (node == null || !Objects.equals(node.value, oldValue)) {
+            return false;
+        }
+        node.value = newValue;
+        version++;
+        afterNodeAccess(node);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (node == null || !Objects.equals(node.value, value)) {
+            return false;
+        }
+        removeNode(key, true);
+        return true;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (stats != null) {
+            stats.recordLookup(node != null);
+        }
+        if (node == null) {
+            return defaultValue;
+        }
+        afterNodeAccess(node);
+        return node.value;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        migrate();
+        int hash = hash(key);
+        Node<K, V> node = find(hash, key);
+        if (node == null) {
+            addNewNode(hash, key, value);
+            return null;
+        }
+        V old = node.value;
+        if (old == null) {
+            node.value = value;
+            version++;
+        }
+        afterNodeAccess(node);
+        return old;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (mappingFunction == null) {
+            throw new NullPointerException();
+        }
+        migrate();
+        int hash = hash(key);
+        Node<K, V> node = find(hash, key);
+        if (node != null && node.value != null) {
+            afterNodeAccess(node);
+            return node.value;
+        }
+
+        long expectedVersion = version;
+        V value = mappingFunction.apply(key);
+        checkVersion(expectedVersion);
+        if (value == null) {
+            return null;
+        }
+        if (node == null) {
+            addNewNode(hash, key, value);
+        } else {
+            node.value = value;
+            version++;
+            afterNodeAccess(node);
+        }
+        return value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        migrate();
+        Node<K, V> node = find(hash(key), key);
+        if (node == null || node.value == null) {
+            return null;
+        }
+
+        long expectedVersion = version;
+        V value = remappingFunction.apply(key, node.value);
+        checkVersion(expectedVersion);
+        if (value == null) {
+            removeNode(key, true);
+        } else {
+            node.value = value;
+            version++;
+            afterNodeAccess(node);
+        }
+        return value;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        migrate();
+        int hash = hash(key);
+        Node<K, V> node = find(hash, key);
+        V old = node != null ? node.value : null;
+
+        long expectedVersion = version;
+        V value = remappingFunction.apply(key, old);
+        checkVersion(expectedVersion);
+        if (node != null) {
+            if (value == null) {
+                removeNode(key, true);
+            } else {
+                node.value = value;
+                version++;
+                afterNodeAccess(node);
+            }
+        } else if (value != null) {
+            addNewNode(hash, key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null || remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        migrate();
+        int hash = hash(key);
+        Node<K, V> node = find(hash, key);
+        if (node == null) {
+            addNewNode(hash, key, value);
+            return value;
+        }
+        if (node.value == null) {
+            node.value = value;
+            version++;
+            afterNodeAccess(node);
+            return value;
+        }
+
+        long expectedVersion = version;
+        V merged = remappingFunction.apply(node.value, value);
+        checkVersion(expectedVersion);
+        if (merged == null) {
+            removeNode(key, true);
+        } else {
+            node.value = merged;
+            version++;
+            afterNodeAccess(node);
+        }
+        return merged;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        long expectedVersion = version;
+        forEach(nodes, 0, action);
+        if (oldNodes != null) {
+            forEach(oldNodes, migrationIndex, action);
+        }
+        checkVersion(expectedVersion);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        if (function == null) {
+            throw new NullPointerException();
+        }
+        long expectedVersion = version;
+        replaceAll(nodes, 0, function);
+        if (oldNodes != null) {
+            replaceAll(oldNodes, migrationIndex, function);
+        }
+        checkVersion(expectedVersion);
+        version++;
+    }
+
+    private V putValue(int hash, K key, V value) {
+        Node<K, V> node = find(hash, key);
+        if (node != null) {
+            V old = node.value;
+            node.value = value;
+            version++;
+            afterNodeAccess(node);
+            return old;
+        }
+
+        addNewNode(hash, key, value);
+        return null;
+    }
+
+    private void addNewNode(int hash, K key, V value) {
+        reBuild();
+        addNode(newNode(hash, key, value));
+        size++;
+        version++;
+        afterNodeInsertion();
+    }
+
+    Node<K, V> newNode(int hash, K key, V value) {
+        return new Node<>(hash, key, value, null);
+    }
+
+    Node<K, V> replacementNode(Node<K, V> node) {
+        return new Node<>(node.hash, node.key, node.value, null);
+    }
+
+    void transferLinks(Node<K, V> source, Node<K, V> target) {
+    }
+
+    void afterNodeAccess(Node<K, V> node) {
+    }
+
+    void afterNodeInsertion() {
+    }
+
+    void afterNodeRemoval(Node<K, V> node) {
+    }
+
+    Node<K, V> getNode(Object key) {
+        migrate();
+        return find(hash(key), key);
+    }
+
+    private void forEach(Node<K, V>[] table, int from, BiConsumer<? super K, ? super V> action) {
+        for (int i = from; i < table.length; i++) {
+            for (Node<K, V> cursor = table[i]; cursor != null; cursor = cursor.next) {
+                action.accept(cursor.key, cursor.value);
+            }
+        }
+    }
+
+    private void replaceAll(Node<K, V>[] table, int from, BiFunction<? super K, ? super V, ? extends V> function) {
+        for (int i = from; i < table.length; i++) {
+            for (Node<K, V> cursor = table[i]; cursor != null; cursor = cursor.next) {
+                cursor.value = function.apply(cursor.key, cursor.value);
+            }
+        }
+    }
+
+    public FrozenHashMap<K, V> freeze() {
+        return new FrozenHashMap<>(this);
+    }
+
+    double loadFactor() {
+        return LOAD_FACTOR;
+    }
+
+    public void enableStats() {
+        if (stats == null) {
+            stats = new Recorder();
+        }
+    }
+
+    public void disableStats() {
+        stats = null;
+    }
+
+    public boolean isStatsEnabled() {
+        return stats != null;
+    }
+
+    public void resetStats() {
+        if (stats != null) {
+            stats = new Recorder();
+        }
+    }
+
+    public void enableParallelResize() {
+        enableParallelResize(ForkJoinPool.commonPool());
+    }
+
+    public void enableParallelResize(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException();
+        }
+        parallelPool = pool;
+    }
+
+    public void disableParallelResize() {
+        parallelPool = null;
+    }
+
+    public boolean isParallelResizeEnabled() {
+        return parallelPool != null;
+    }
+
+    public HashMapStats getStats() {
+        long[] chainLengths = new long[TREEIFY_THRESHOLD + 2];
+        long[] totals = new long[3];
+        collectChains(nodes, 0, chainLengths, totals);
+        if (oldNodes != null) {
+            collectChains(oldNodes, migrationIndex, chainLengths, totals);
+        }
+
+        Recorder recorder = stats != null ? stats : new Recorder();
+        return new HashMapStats(size, capacity, LOAD_FACTOR, recorder.hitCount, recorder.missCount,
+                recorder.resizeCount, recorder.resizeTimeNanos, recorder.maxResizeTimeNanos, recorder.treeifyCount,
+                recorder.concurrentModificationCount, chainLengths, (int) totals[0], (int) totals[1],
+                size == 0 ? 0 : (double) totals[2] / size);
+    }
+
+    private void collectChains(Node<K, V>[] table, int from, long[] chainLengths, long[] totals) {
+        for (int i = from; i < table.length; i++) {
+            int length = 0;
+            for (Node<K, V> cursor = table[i]; cursor != null; cursor = cursor.next) {
+                length++;
+            }
+            chainLengths[Math.min(length, chainLengths.length - 1)]++;
+            totals[0] = Math.max(totals[0], length);
+            if (table[i] instanceof TreeNode) {
+                totals[1]++;
+                totals[2] += (long) length * ((TreeNode<K, V>) table[i]).root().height;
+            } else {
+                totals[2] += (long) length * (length + 1) / 2;
+            }
+        }
+    }
+
+    ConcurrentModificationException concurrentModification() {
+        if (stats != null) {
+            stats.concurrentModificationCount++;
+        }
+        return new ConcurrentModificationException();
+    }
+
+    private void checkVersion(long expectedVersion) {
+        if (expectedVersion != version) {
+            throw concurrentModification();
+        }
+    }
+
+    private void putAll(Node<? extends K, ? extends V>[] table, int from) {
+        for (int i = from; i < table.length; i++) {
+            for (Node<? extends K, ? extends V> cursor = table[i]; cursor != null; cursor = cursor.next) {
+                putValue(cursor.hash, cursor.key, cursor.value);
+            }
+        }
+    }
+
+    private void copyBaskets(Node<? extends K, ? extends V>[] table) {
+        for (int i = 0; i < table.length; i++) {
+            Node<K, V> last = null;
+            for (Node<? extends K, ? extends V> cursor = table[i]; cursor != null; cursor = cursor.next) {
+                Node<K, V> node = newNode(cursor.hash, cursor.key, cursor.value);
+                if (last == null) {
+                    nodes[i] = node;
+                } else {
+                    last.next = node;
+                }
+                last = node;
+                size++;
+            }
+            if (table[i] instanceof TreeNode) {
+                treeifyBasket(nodes, i);
+            }
+        }
+        version++;
+    }
+
+    private boolean containsValue(Node<K, V>[] table, int from, Object value) {
+        for (int i = from; i < table.length; i++) {
+            for (Node<K, V> cursor = table[i]; cursor != null; cursor = cursor.next) {
+                if (Objects.equals(cursor.value, value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Node<K, V> find(int hash, Object key) {
+        Node<K, V> node = findInBasket(nodes, getIndexEntry(hash, capacity), hash, key);
+        if (node == null && oldNodes != null) {
+            int index = getIndexEntry(hash, oldNodes.length);
+            if (index >= migrationIndex) {
+                node = findInBasket(oldNodes, index, hash, key);
+            }
+        }
+        return node;
+    }
+
+    private Node<K, V> findInBasket(Node<K, V>[] table, int index, int hash, Object key) {
+        return findInChain(table[index], hash, key);
+    }
+
+    private Node<K, V> findInChain(Node<K, V> cursor, int hash, Object key) {
+        if (cursor instanceof TreeNode) {
+            return TreeNode.find(((TreeNode<K, V>) cursor).root(), hash, key);
+        }
+        while (cursor != null) {
+            if (cursor.hash == hash && Objects.equals(cursor.key, key)) {
+                return cursor;
+            }
+            cursor = cursor.next;
+        }
+        return null;
+    }
+
+    private Node<K, V> removeFromBasket(Node<K, V>[] table, int index, int hash, Object key, boolean movable) {
+        Node<K, V> previous = null;
+        Node<K, V> cursor = table[index];
+        if (cursor instanceof TreeNode) {
+            TreeNode<K, V> node = TreeNode.find(((TreeNode<K, V>) cursor).root(), hash, key);
+            if (node != null) {
+                removeTreeNode(table, index, node, movable);
+            }
+            return node;
+        }
+
+        while (cursor != null) {
+            if (cursor.hash == hash && Objects.equals(cursor.key, key)) {
+                if (previous == null) {
+                    table[index] = cursor.next;
+                } else {
+                    previous.next = cursor.next;
+                }
+                return cursor;
+            }
+            previous = cursor;
+            cursor = cursor.next;
+        }
+        return null;
+    }
+
+    private void addNode(Node<K, V> node) {
+        addNode(node, null);
+    }
+
+    private void addNode(Node<K, V> node, Partition partition) {
+        int index = getIndexEntry(node.hash, capacity);
+        Node<K, V> head = nodes[index];
+        if (head instanceof TreeNode) {
+            putTreeNode(nodes, index, toTreeNode(node, partition));
+            return;
+        }
+
+        if (node instanceof TreeNode) {
+            node = replacementNode(node);
+        }
+        node.next = head;
+        nodes[index] = node;
+        if (capacity >= MIN_TREEIFY_CAPACITY && basketLength(node) >= TREEIFY_THRESHOLD) {
+            treeifyBasket(nodes, index, partition);
+        }
+    }
+
+    private void putTreeNode(Node<K, V>[] table, int index, TreeNode<K, V> node) {
+        TreeNode<K, V> head = (TreeNode<K, V>) table[index];
+        TreeNode.insert(head.root(), node).parent = null;
+        node.next = head;
+        head.prev = node;
+        table[index] = node;
+    }
+
+    private void removeTreeNode(Node<K, V>[] table, int index, TreeNode<K, V> node, boolean movable) {
+        TreeNode<K, V> root = TreeNode.remove(((TreeNode<K, V>) table[index]).root(), node);
+        TreeNode<K, V> next = (TreeNode<K, V>) node.next;
+        if (node.prev == null) {
+            table[index] = next;
+        } else {
+            node.prev.next = next;
+        }
+        if (next != null) {
+            next.prev = node.prev;
+        }
+        node.prev = null;
+        node.parent = null;
+
+        if (root != null) {
+            root.parent = null;
+            if (movable && root.height <= 3 && basketLength(table[index]) <= UNTREEIFY_THRESHOLD) {
+                untreeifyBasket(table, index);
+            }
+        }
+    }
+
+    private void treeifyBasket(Node<K, V>[] table, int index) {
+        treeifyBasket(table, index, null);
+    }
+
+    private void treeifyBasket(Node<K, V>[] table, int index, Partition partition) {
+        if (partition != null) {
+            partition.treeifyCount++;
+        } else if (stats != null) {
+            stats.treeifyCount++;
+        }
+        TreeNode<K, V> root = null;
+        TreeNode<K, V> first = null;
+        TreeNode<K, V> last = null;
+        for (Node<K, V> cursor = table[index]; cursor != null; cursor = cursor.next) {
+            TreeNode<K, V> node = new TreeNode<>(cursor.hash, cursor.key, cursor.value, nextSequence(partition));
+            transferLinks(cursor, node);
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+                node.prev = last;
+            }
+            last = node;
+            root = TreeNode.insert(root, node);
+            root.parent = null;
+        }
+        table[index] = first;
+    }
+
+    private void untreeifyBasket(Node<K, V>[] table, int index) {
+        Node<K, V> first = null;
+        Node<K, V> last = null;
+        for (Node<K, V> cursor = table[index]; cursor != null; cursor = cursor.next) {
+            Node<K, V> node = replacementNode(cursor);
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+        table[index] = first;
+    }
+
+    private TreeNode<K, V> toTreeNode(Node<K, V> node, Partition partition) {
+        if (node instanceof TreeNode) {
+            TreeNode<K, V> treeNode = (TreeNode<K, V>) node;
+            treeNode.left = null;
+            treeNode.right = null;
+            treeNode.parent = null;
+            treeNode.prev = null;
+            treeNode.next = null;
+            treeNode.height = 1;
+            return treeNode;
+        }
+        TreeNode<K, V> treeNode = new TreeNode<>(node.hash, node.key, node.value, nextSequence(partition));
+        transferLinks(node, treeNode);
+        return treeNode;
+    }
+
+    private static int basketLength(Node<?, ?> cursor) {
+        int length = 0;
+        while (cursor != null && length < TREEIFY_THRESHOLD) {
+            length++;
+            cursor = cursor.next;
+        }
+        return length;
+    }
+
+    Node<K, V> removeNode(Object key, boolean movable) {
+        int hash = hash(key);
+        Node<K, V> node = removeFromBasket(nodes, getIndexEntry(hash, capacity), hash, key, movable);
+        if (node == null && oldNodes != null) {
+            int index = getIndexEntry(hash, oldNodes.length);
+            if (index >= migrationIndex) {
+                node = removeFromBasket(oldNodes, index, hash, key, movable);
+            }
+        }
+        if (node != null) {
+            size--;
+            version++;
+            afterNodeRemoval(node);
+            if (movable && size < shrinkThreshold) {
+                shrink();
+            }
+        }
+        return node;
+    }
+
+    private static int hash(Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    private static int getIndexEntry(int hash, int length) {
+        return Math.abs(hash % length);
+    }
+
+    private void reBuild() {
+        if (((double) size / capacity) >= LOAD_FACTOR) {
+            resize(Math.max((int) (capacity * STEP_INCREASE), capacity + 1));
+        }
+    }
+
+    void ensureCapacity(int expectedSize) {
+        if (((double) expectedSize / capacity) >= LOAD_FACTOR) {
+            long newCapacity = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+            resize((int) Math.min(newCapacity, MAXIMUM_CAPACITY));
+        }
+    }
+
+    private void shrink() {
+        double targetLoadFactor = (shrinkLoadFactor + LOAD_FACTOR) / 2;
+        long newCapacity = Math.max((long) Math.ceil(size / targetLoadFactor) + 1, minimumCapacity);
+        if (newCapacity < capacity) {
+            resize((int) newCapacity);
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long start = stats != null ? System.nanoTime() : 0;
+        completeMigration();
+        oldNodes = nodes;
+        migrationIndex = 0;
+
+        capacity = newCapacity;
+        nodes = (Node<K, V>[]) new Node[capacity];
+        shrinkThreshold = (int) (capacity * shrinkLoadFactor);
+
+        if (!incrementalResize) {
+            if (parallelResize()) {
+                transferParallel();
+            } else {
+                completeMigration();
+            }
+        }
+        if (stats != null) {
+            stats.recordResize(System.nanoTime() - start);
+        }
+    }
+
+    boolean parallelTransferSupported() {
+        return true;
+    }
+
+    private boolean parallelResize() {
+        return parallelPool != null && size >= PARALLEL_THRESHOLD && parallelPool.getParallelism() > 1
+                && parallelTransferSupported();
+    }
+
+    private void buildParallel(K[] keys, V[] values, ForkJoinPool pool) {
+        int count = keys.length;
+        int parts = partitions(pool, Math.min(count, capacity));
+        int chunk = divideCeil(count, parts);
+        int span = divideCeil(capacity, parts);
+        int[] hashes = new int[count];
+        int[][] offsets = new int[parts][parts];
+
+        pool.invoke(new RangeTask(0, parts, part -> {
+            int[] counts = offsets[part];
+            for (int i = part * chunk, end = Math.min(count, i + chunk); i < end; i++) {
+                int hash = hash(keys[i]);
+                hashes[i] = hash;
+                counts[getIndexEntry(hash, capacity) / span]++;
+            }
+        }));
+        int[] bounds = toOffsets(offsets);
+        int[] order = new int[count];
+        pool.invoke(new RangeTask(0, parts, part -> {
+            int[] next = offsets[part];
+            for (int i = part * chunk, end = Math.min(count, i + chunk); i < end; i++) {
+                order[next[getIndexEntry(hashes[i], capacity) / span]++] = i;
+            }
+        }));
+
+        Partition[] partitions = new Partition[parts];
+        pool.invoke(new RangeTask(0, parts, part -> {
+            Partition partition = new Partition(treeSequence + 2L * bounds[part]);
+            for (int position = bounds[part]; position < bounds[part + 1]; position++) {
+                int i = order[position];
+                int hash = hashes[i];
+                Node<K, V> node = findInBasket(nodes, getIndexEntry(hash, capacity), hash, keys[i]);
+                if (node != null) {
+                    node.value = values[i];
+                } else {
+                    addNode(newNode(hash, keys[i], values[i]), partition);
+                    partition.size++;
+                }
+            }
+            partitions[part] = partition;
+        }));
+        mergePartitions(partitions, count);
+        version++;
+    }
+
+    private void transferParallel() {
+        ForkJoinPool pool = parallelPool;
+        Node<K, V>[] old = oldNodes;
+        int parts = partitions(pool, Math.min(old.length, capacity));
+        int chunk = divideCeil(old.length, parts);
+        int span = divideCeil(capacity, parts);
+        int[][] offsets = new int[parts][parts];
+
+        pool.invoke(new RangeTask(0, parts, part -> {
+            int[] counts = offsets[part];
+            for (int i = part * chunk, end = Math.min(old.length, i + chunk); i < end; i++) {
+                for (Node<K, V> cursor = old[i]; cursor != null; cursor = cursor.next) {
+                    counts[getIndexEntry(cursor.hash, capacity) / span]++;
+                }
+            }
+        }));
+        int[] bounds = toOffsets(offsets);
+        Node<K, V>[] order = (Node<K, V>[]) new Node[bounds[parts]];
+        pool.invoke(new RangeTask(0, parts, part -> {
+            int[] next = offsets[part];
+            for (int i = part * chunk, end = Math.min(old.length, i + chunk); i < end; i++) {
+                for (Node<K, V> cursor = old[i]; cursor != null; cursor = cursor.next) {
+                    order[next[getIndexEntry(cursor.hash, capacity) / span]++] = cursor;
+                }
+                old[i] = null;
+            }
+        }));
+
+        Partition[] partitions = new Partition[parts];
+        pool.invoke(new RangeTask(0, parts, part -> {
+            Partition partition = new Partition(treeSequence + 2L * bounds[part]);
+            for (int position = bounds[part]; position < bounds[part + 1]; position++) {
+                addNode(order[position], partition);
+            }
+            partitions[part] = partition;
+        }));
+        mergePartitions(partitions, order.length);
+        oldNodes = null;
+        migrationIndex = 0;
+    }
+
+    private void mergePartitions(Partition[] partitions, int count) {
+        for (Partition partition : partitions) {
+            size += partition.size;
+            if (stats != null) {
+                stats.treeifyCount += partition.treeifyCount;
+            }
+        }
+        treeSequence += 2L * count;
+    }
+
+    private long nextSequence(Partition partition) {
+        return partition != null ? partition.sequence++ : treeSequence++;
+    }
+
+    private static int partitions(ForkJoinPool pool, int limit) {
+        return Math.max(1, Math.min(pool.getParallelism() * PARTITIONS_PER_THREAD, limit));
+    }
+
+    private static int divideCeil(int dividend, int divisor) {
+        return (int) (((long) dividend + divisor - 1) / divisor);
+    }
+
+    private static int[] toOffsets(int[][] counts) {
+        int parts = counts[0].length;
+        int[] bounds = new int[parts + 1];
+        int position = 0;
+        for (int part = 0; part < parts; part++) {
+            bounds[part] = position;
+            for (int[] chunk : counts) {
+                int count = chunk[part];
+                chunk[part] = position;
+                position += count;
+            }
+        }
+        bounds[parts] = position;
+        return bounds;
+    }
+
+    private int iterationFence() {
+        return oldNodes != null ? nodes.length + oldNodes.length - migrationIndex : nodes.length;
+    }
+
+    private static <K, V> Node<K, V> basket(Node<K, V>[] table, Node<K, V>[] oldTable, int oldOrigin, int index) {
+        return index < table.length ? table[index] : oldTable[oldOrigin + index - table.length];
+    }
+
+    private void migrate() {
+        // Reads do not move buckets while an iterator or spliterator is still valid.
+        if (oldNodes != null && pinnedVersion != version) {
+            transfer(MIGRATION_STEP);
+        }
+    }
+
+    private void completeMigration() {
+        if (oldNodes != null) {
+            transfer(oldNodes.length - migrationIndex);
+        }
+    }
+
+    private void transfer(int baskets) {
+        Node<K, V>[] old = oldNodes;
+        int end = Math.min(old.length, migrationIndex + baskets);
+
+        for (; migrationIndex < end; migrationIndex++) {
+            Node<K, V> cursor = old[migrationIndex];
+            old[migrationIndex] = null;
+            while (cursor != null) {
+                Node<K, V> next = cursor.next;
+                addNode(cursor);
+                cursor = next;
+            }
+        }
+        if (migrationIndex == old.length) {
+            oldNodes = null;
+        }
+    }
+
+    private static class Recorder {
+        long hitCount;
+        long missCount;
+        long resizeCount;
+        long resizeTimeNanos;
+        long maxResizeTimeNanos;
+        long treeifyCount;
+        long concurrentModificationCount;
+
+        void recordLookup(boolean hit) {
+            if (hit) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+
+        void recordResize(long nanos) {
+            resizeCount++;
+            resizeTimeNanos += nanos;
+            maxResizeTimeNanos = Math.max(maxResizeTimeNanos, nanos);
+        }
+    }
+
+    private static class Partition {
+        long sequence;
+        int size;
+        long treeifyCount;
+
+        Partition(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+        }
+    }
+
+    static class Node<K, V> implements Map.Entry<K, V> {
+        final int hash;
+        Node<K, V> next;
+        K key;
+        V value;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.value = value;
+            this.key = key;
+            this.next = next;
+        }
+
+        boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry entry = (Entry) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return "Node{" +
+                    "key=" + key +
+                    ", value=" + value +
+                    '}';
+        }
+    }
+
+    private static class TreeNode<K, V> extends LinkedHashMap.LinkedNode<K, V> {
+        private final long sequence;
+        private TreeNode<K, V> parent;
+        private TreeNode<K, V> left;
+        private TreeNode<K, V> right;
+        private TreeNode<K, V> prev;
+        private int height = 1;
+
+        TreeNode(int hash, K key, V value, long sequence) {
+            super(hash, key, value);
+            this.sequence = sequence;
+        }
+
+        TreeNode<K, V> root() {
+            TreeNode<K, V> root = this;
+            while (root.parent != null) {
+                root = root.parent;
+            }
+            return root;
+        }
+
+        static <K, V> TreeNode<K, V> find(TreeNode<K, V> cursor, int hash, Object key) {
+            while (cursor != null) {
+                if (hash != cursor.hash) {
+                    cursor = hash < cursor.hash ? cursor.left : cursor.right;
+                    continue;
+                }
+                if (Objects.equals(key, cursor.key)) {
+                    return cursor;
+                }
+                int direction = compareKeys(key, cursor.key);
+                if (direction < 0) {
+                    cursor = cursor.left;
+                } else if (direction > 0) {
+                    cursor = cursor.right;
+                } else {
+                    TreeNode<K, V> found = find(cursor.right, hash, key);
+                    if (found != null) {
+                        return found;
+                    }
+                    cursor = cursor.left;
+                }
+            }
+            return null;
+        }
+
+        static <K, V> TreeNode<K, V> insert(TreeNode<K, V> root, TreeNode<K, V> node) {
+            if (root == null) {
+                node.height = 1;
+                return node;
+            }
+            if (compareNodes(node, root) < 0) {
+                root.left = insert(root.left, node);
+            } else {
+                root.right = insert(root.right, node);
+            }
+            return balance(root);
+        }
+
+        static <K, V> TreeNode<K, V> remove(TreeNode<K, V> root, TreeNode<K, V> node) {
+            if (root == null) {
+                return null;
+            }
+            if (root == node) {
+                TreeNode<K, V> left = node.left;
+                TreeNode<K, V> right = node.right;
+                node.left = null;
+                node.right = null;
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                TreeNode<K, V> successor = right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                successor.right = removeMin(right);
+                successor.left = left;
+                return balance(successor);
+            }
+            if (compareNodes(node, root) < 0) {
+                root.left = remove(root.left, node);
+            } else {
+                root.right = remove(root.right, node);
+            }
+            return balance(root);
+        }
+
+        private static <K, V> TreeNode<K, V> removeMin(TreeNode<K, V> root) {
+            if (root.left == null) {
+                return root.right;
+            }
+            root.left = removeMin(root.left);
+            return balance(root);
+        }
+
+        private static <K, V> TreeNode<K, V> balance(TreeNode<K, V> node) {
+            update(node);
+            int factor = height(node.left) - height(node.right);
+            if (factor > 1) {
+                if (height(node.left.left) < height(node.left.right)) {
+                    node.left = rotateLeft(node.left);
+                }
+                return rotateRight(node);
+            }
+            if (factor < -1) {
+                if (height(node.right.right) < height(node.right.left)) {
+                    node.right = rotateRight(node.right);
+                }
+                return rotateLeft(node);
+            }
+            return node;
+        }
+
+        private static <K, V> TreeNode<K, V> rotateLeft(TreeNode<K, V> node) {
+            TreeNode<K, V> right = node.right;
+            node.right = right.left;
+            right.left = node;
+            update(node);
+            update(right);
+            return right;
+        }
+
+        private static <K, V> TreeNode<K, V> rotateRight(TreeNode<K, V> node) {
+            TreeNode<K, V> left = node.left;
+            node.left = left.right;
+            left.right = node;
+            update(node);
+            update(left);
+            return left;
+        }
+
+        private static <K, V> void update(TreeNode<K, V> node) {
+            if (node.left != null) {
+                node.left.parent = node;
+            }
+            if (node.right != null) {
+                node.right.parent = node;
+            }
+            node.height = Math.max(height(node.left), height(node.right)) + 1;
+        }
+
+        private static int height(TreeNode<?, ?> node) {
+            return node != null ? node.height : 0;
+        }
+
+        private static int compareNodes(TreeNode<?, ?> first, TreeNode<?, ?> second) {
+            if (first.hash != second.hash) {
+                return first.hash < second.hash ? -1 : 1;
+            }
+            int direction = compareKeys(first.key, second.key);
+            return direction != 0 ? direction : Long.compare(first.sequence, second.sequence);
+        }
+
+        private static int compareKeys(Object first, Object second) {
+            if (first == null || second == null) {
+                return first == second ? 0 : (first == null ? -1 : 1);
+            }
+            Class<?> firstClass = first.getClass();
+            Class<?> secondClass = second.getClass();
+            if (firstClass != secondClass) {
+                return firstClass.getName().compareTo(secondClass.getName());
+            }
+            if (first instanceof Comparable) {
+                try {
+                    return Integer.signum(((Comparable<Object>) first).compareTo(second));
+                } catch (ClassCastException e) {
+                    return 0;
+                }
+            }
+            return 0;
         }
     }
 }
@@ -0,0 +1,5 @@
+public interface HashMapMXBean {
+    HashMapStats getStats();
+
+    void resetStats();
+}
@@ -0,0 +1,122 @@
+import java.util.*;
+
+public class HashMapStats {
+    private final int size;
+    private final int capacity;
+    private final double loadFactor;
+    private final long hitCount;
+    private final long missCount;
+    private final long resizeCount;
+    private final long resizeTimeNanos;
+    private final long maxResizeTimeNanos;
+    private final long treeifyCount;
+    private final long concurrentModificationCount;
+    private final long[] chainLengths;
+    private final int maxChainLength;
+    private final int treeBins;
+    private final double averageProbeLength;
+
+    HashMapStats(int size, int capacity, double loadFactor, long hitCount, long missCount, long resizeCount,
+                 long resizeTimeNanos, long maxResizeTimeNanos, long treeifyCount, long concurrentModificationCount,
+                 long[] chainLengths, int maxChainLength, int treeBins, double averageProbeLength) {
+        this.size = size;
+        this.capacity = capacity;
+        this.loadFactor = loadFactor;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.resizeCount = resizeCount;
+        this.resizeTimeNanos = resizeTimeNanos;
+        this.maxResizeTimeNanos = maxResizeTimeNanos;
+        this.treeifyCount = treeifyCount;
+        this.concurrentModificationCount = concurrentModificationCount;
+        this.chainLengths = chainLengths;
+        this.maxChainLength = maxChainLength;
+        this.treeBins = treeBins;
+        this.averageProbeLength = averageProbeLength;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    public double getFillRatio() {
+        return (double) size / capacity;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    public long getResizeCount() {
+        return resizeCount;
+    }
+
+    public long getResizeTimeNanos() {
+        return resizeTimeNanos;
+    }
+
+    public long getMaxResizeTimeNanos() {
+        return maxResizeTimeNanos;
+    }
+
+    public long getTreeifyCount() {
+        return treeifyCount;
+    }
+
+    public long getConcurrentModificationCount() {
+        return concurrentModificationCount;
+    }
+
+    public long[] getChainLengths() {
+        return chainLengths.clone();
+    }
+
+    public int getMaxChainLength() {
+        return maxChainLength;
+    }
+
+    public int getTreeBins() {
+        return treeBins;
+    }
+
+    public double getAverageProbeLength() {
+        return averageProbeLength;
+    }
+
+    @Override
+    public String toString() {
+        return "HashMapStats{size=" + size
+                + ", capacity=" + capacity
+                + ", loadFactor=" + loadFactor
+                + ", fillRatio=" + getFillRatio()
+                + ", hitCount=" + hitCount
+                + ", missCount=" + missCount
+                + ", resizeCount=" + resizeCount
+                + ", resizeTimeNanos=" + resizeTimeNanos
+                + ", maxResizeTimeNanos=" + maxResizeTimeNanos
+                + ", treeifyCount=" + treeifyCount
+                + ", concurrentModificationCount=" + concurrentModificationCount
+                + ", chainLengths=" + Arrays.toString(chainLengths)
+                + ", maxChainLength=" + maxChainLength
+                + ", treeBins=" + treeBins
+                + ", averageProbeLength=" + averageProbeLength
+                + '}';
+    }
+}
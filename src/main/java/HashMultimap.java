@@ -0,0 +1,194 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class HashMultimap<K, V> {
+    private static final int INITIAL_VALUES_CAPACITY = 4;
+    private final HashMap<K, Object> map;
+    private int size;
+
+    public HashMultimap() {
+        this.map = new HashMap<>();
+    }
+
+    public HashMultimap(int capacity) {
+        this.map = new HashMap<>(capacity);
+    }
+
+    public HashMultimap(int capacity, double loadFactor) {
+        this.map = new HashMap<>(capacity, loadFactor);
+    }
+
+    public void putValue(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        HashMap.Node<K, Object> node = map.getNode(key);
+        if (node == null) {
+            map.put(key, value);
+        } else if (node.value instanceof Values) {
+            ((Values) node.value).add(value);
+        } else {
+            Values values = new Values();
+            values.add(node.value);
+            values.add(value);
+            node.value = values;
+        }
+        size++;
+    }
+
+    public void putAll(K key, Collection<? extends V> values) {
+        for (V value : values) {
+            putValue(key, value);
+        }
+    }
+
+    public List<V> getAll(Object key) {
+        Object current = map.get(key);
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        if (current instanceof Values) {
+            Values values = (Values) current;
+            return (List<V>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(values.items, values.size)));
+        }
+        return Collections.singletonList((V) current);
+    }
+
+    public void forEachValue(Object key, Consumer<? super V> action) {
+        Object current = map.get(key);
+        if (current instanceof Values) {
+            Values values = (Values) current;
+            for (int i = 0; i < values.size; i++) {
+                action.accept((V) values.items[i]);
+            }
+        } else if (current != null) {
+            action.accept((V) current);
+        }
+    }
+
+    public int valueCount(Object key) {
+        Object current = map.get(key);
+        if (current == null) {
+            return 0;
+        }
+        return current instanceof Values ? ((Values) current).size : 1;
+    }
+
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    public boolean containsEntry(Object key, Object value) {
+        Object current = map.get(key);
+        if (current instanceof Values) {
+            return ((Values) current).indexOf(value) >= 0;
+        }
+        return current != null && current.equals(value);
+    }
+
+    public boolean removeValue(Object key, Object value) {
+        HashMap.Node<K, Object> node = map.getNode(key);
+        if (node == null) {
+            return false;
+        }
+        if (node.value instanceof Values) {
+            Values values = (Values) node.value;
+            int index = values.indexOf(value);
+            if (index < 0) {
+                return false;
+            }
+            values.remove(index);
+            if (values.size == 1) {
+                node.value = values.items[0];
+            }
+        } else if (node.value.equals(value)) {
+            map.remove(key);
+        } else {
+            return false;
+        }
+        size--;
+        return true;
+    }
+
+    public List<V> removeAll(Object key) {
+        List<V> removed = getAll(key);
+        if (!removed.isEmpty()) {
+            map.remove(key);
+            size -= removed.size();
+        }
+        return removed;
+    }
+
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach((key, current) -> {
+            if (current instanceof Values) {
+                Values values = (Values) current;
+                for (int i = 0; i < values.size; i++) {
+                    action.accept(key, (V) values.items[i]);
+                }
+            } else {
+                action.accept(key, (V) current);
+            }
+        });
+    }
+
+    public void clear() {
+        map.clear();
+        size = 0;
+    }
+
+    public int keyCount() {
+        return map.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        map.forEach((key, current) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(getAll(key));
+        });
+        return builder.append('}').toString();
+    }
+
+    private static final class Values {
+        private Object[] items = new Object[INITIAL_VALUES_CAPACITY];
+        private int size;
+
+        void add(Object value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size + (size >> 1));
+            }
+            items[size++] = value;
+        }
+
+        void remove(int index) {
+            System.arraycopy(items, index + 1, items, index, size - index - 1);
+            items[--size] = null;
+        }
+
+        int indexOf(Object value) {
+            for (int i = 0; i < size; i++) {
+                if (items[i].equals(value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.*;
+
+public class HashMultiset<K> {
+    private final ObjectIntMap<K> counts;
+    private long size;
+
+    public HashMultiset() {
+        this.counts = new ObjectIntMap<>(16, 0.75, 0);
+    }
+
+    public HashMultiset(int capacity) {
+        this.counts = new ObjectIntMap<>(capacity, 0.75, 0);
+    }
+
+    public int add(K key) {
+        return add(key, 1);
+    }
+
+    public int add(K key, int delta) {
+        int old = counts.addTo(key, delta);
+        int count = old + delta;
+        if (count <= 0) {
+            counts.remove(key);
+            size -= old;
+            return 0;
+        }
+        size += delta;
+        return count;
+    }
+
+    public int remove(K key) {
+        return add(key, -1);
+    }
+
+    public int setCount(K key, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Illegal count: " + count);
+        }
+        int old = count == 0 ? counts.remove(key) : counts.put(key, count);
+        size += count - old;
+        return old;
+    }
+
+    public int count(Object key) {
+        return counts.get(key);
+    }
+
+    public boolean contains(Object key) {
+        return counts.containsKey(key);
+    }
+
+    public void forEach(ObjectIntMap.ObjectIntConsumer<? super K> action) {
+        counts.forEach(action);
+    }
+
+    public void clear() {
+        counts.clear();
+        size = 0;
+    }
+
+    public int elementCount() {
+        return counts.size();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return counts.toString();
+    }
+}
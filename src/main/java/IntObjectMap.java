@@ -0,0 +1,317 @@
+import java.util.*;
+
+public class IntObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private static final int BATCH_WINDOW = 16;
+    private final double LOAD_FACTOR;
+    private int[] keys;
+    private V[] values;
+    private boolean hasZeroKey;
+    private V zeroValue;
+    private long version;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY, 0.75);
+    }
+
+    public IntObjectMap(int capacity) {
+        this(capacity, 0.75);
+    }
+
+    public IntObjectMap(int capacity, double loadFactor) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.LOAD_FACTOR = loadFactor;
+        allocate(tableSizeFor((int) Math.ceil(capacity / loadFactor)));
+    }
+
+    public V put(int key, V value) {
+        if (key == 0) {
+            V old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            version++;
+            return old;
+        }
+
+        int index = spread(key) & mask;
+        int current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                V old = values[index];
+                values[index] = value;
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        version++;
+        if (++size - (hasZeroKey ? 1 : 0) > maxFill) {
+            reBuild(keys.length << 1);
+        }
+        return null;
+    }
+
+    public V get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int index = find(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    public int getAll(int[] keys, V[] out) {
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output is shorter than keys: " + out.length + " < " + keys.length);
+        }
+        int[] slots = new int[BATCH_WINDOW];
+        int[] heads = new int[BATCH_WINDOW];
+        int found = 0;
+        for (int from = 0; from < keys.length; from += BATCH_WINDOW) {
+            int count = Math.min(BATCH_WINDOW, keys.length - from);
+            for (int i = 0; i < count; i++) {
+                slots[i] = spread(keys[from + i]) & mask;
+            }
+            int[] table = this.keys;
+            for (int i = 0; i < count; i++) {
+                heads[i] = table[slots[i]];
+            }
+            for (int i = 0; i < count; i++) {
+                int key = keys[from + i];
+                if (key == 0) {
+                    out[from + i] = zeroValue;
+                    found += hasZeroKey ? 1 : 0;
+                    continue;
+                }
+                int index = probe(slots[i], heads[i], key);
+                if (index >= 0) {
+                    out[from + i] = values[index];
+                    found++;
+                } else {
+                    out[from + i] = null;
+                }
+            }
+        }
+        return found;
+    }
+
+    public void putAll(int[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        long expected = (long) size + keys.length;
+        if (expected > maxFill) {
+            reBuild(tableSizeFor((int) Math.min(Math.ceil(expected / LOAD_FACTOR), MAXIMUM_CAPACITY)));
+        }
+        int[] slots = new int[BATCH_WINDOW];
+        int[] heads = new int[BATCH_WINDOW];
+        for (int from = 0; from < keys.length; from += BATCH_WINDOW) {
+            int count = Math.min(BATCH_WINDOW, keys.length - from);
+            for (int i = 0; i < count; i++) {
+                slots[i] = spread(keys[from + i]) & mask;
+            }
+            int[] table = this.keys;
+            for (int i = 0; i < count; i++) {
+                heads[i] = table[slots[i]];
+            }
+            for (int i = 0; i < count; i++) {
+                int key = keys[from + i];
+                if (key == 0) {
+                    put(key, values[from + i]);
+                    continue;
+                }
+                int index = slots[i];
+                int current = heads[i];
+                while (current != 0 && current != key) {
+                    index = (index + 1) & mask;
+                    current = table[index];
+                }
+                this.values[index] = values[from + i];
+                version++;
+                if (current == key) {
+                    continue;
+                }
+                table[index] = key;
+                size++;
+                for (int j = i + 1; j < count; j++) {
+                    if (slots[j] == index) {
+                        heads[j] = key;
+                    }
+                }
+            }
+        }
+    }
+
+    public V remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V old = zeroValue;
+            zeroValue = null;
+            hasZeroKey = false;
+            size--;
+            version++;
+            return old;
+        }
+
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = values[index];
+        shiftKeys(index);
+        size--;
+        version++;
+        return old;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public void forEach(IntObjectConsumer<? super V> action) {
+        long expectedVersion = version;
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+        if (expectedVersion != version) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+        version++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int find(int key) {
+        int index = spread(key) & mask;
+        int current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int probe(int index, int current, int key) {
+        while (current != 0) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+            current = keys[index];
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int index) {
+        int last = index;
+        int slot;
+        int key;
+        for (; ; ) {
+            slot = (last + 1) & mask;
+            while ((key = keys[slot]) != 0) {
+                int ideal = spread(key) & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (key == 0) {
+                break;
+            }
+            keys[last] = key;
+            values[last] = values[slot];
+            last = slot;
+        }
+        keys[last] = 0;
+        values[last] = null;
+    }
+
+    private void reBuild(int newCapacity) {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int index = spread(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.mask = capacity - 1;
+        this.maxFill = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int spread(int key) {
+        int h = key * GOLDEN_RATIO;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        return n >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+}
@@ -0,0 +1,427 @@
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class LinkedBlockingQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger();
+    private final ReentrantLock takeLock = new ReentrantLock();
+    private final Condition notEmpty = takeLock.newCondition();
+    private final ReentrantLock putLock = new ReentrantLock();
+    private final Condition notFull = putLock.newCondition();
+    private Node<T> head;
+    private Node<T> tail;
+
+    public LinkedBlockingQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public LinkedBlockingQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.head = new Node<>(null);
+        this.tail = head;
+    }
+
+    @Override
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        if (count.get() == capacity) {
+            return false;
+        }
+        int before;
+        putLock.lock();
+        try {
+            if (count.get() == capacity) {
+                return false;
+            }
+            before = enqueue(element);
+        } finally {
+            putLock.unlock();
+        }
+        signalAfterPut(before);
+        return true;
+    }
+
+    @Override
+    public void put(T element) throws InterruptedException {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        int before;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                notFull.await();
+            }
+            before = enqueue(element);
+        } finally {
+            putLock.unlock();
+        }
+        signalAfterPut(before);
+    }
+
+    @Override
+    public boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long nanos = unit.toNanos(timeout);
+        int before;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            before = enqueue(element);
+        } finally {
+            putLock.unlock();
+        }
+        signalAfterPut(before);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        if (count.get() == 0) {
+            return null;
+        }
+        T element;
+        int before;
+        takeLock.lock();
+        try {
+            if (count.get() == 0) {
+                return null;
+            }
+            element = dequeue();
+            before = count.getAndDecrement();
+            if (before > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        signalAfterTake(before);
+        return element;
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        T element;
+        int before;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                notEmpty.await();
+            }
+            element = dequeue();
+            before = count.getAndDecrement();
+            if (before > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        signalAfterTake(before);
+        return element;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        T element;
+        int before;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            element = dequeue();
+            before = count.getAndDecrement();
+            if (before > 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        signalAfterTake(before);
+        return element;
+    }
+
+    @Override
+    public T peek() {
+        if (count.get() == 0) {
+            return null;
+        }
+        takeLock.lock();
+        try {
+            Node<T> first = head.next;
+            return first != null ? first.value : null;
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> collection, int maxElements) {
+        if (collection == null) {
+            throw new NullPointerException();
+        }
+        if (collection == this) {
+            throw new IllegalArgumentException();
+        }
+        if (maxElements <= 0) {
+            return 0;
+        }
+        int drained = 0;
+        int before;
+        takeLock.lock();
+        try {
+            int limit = Math.min(maxElements, count.get());
+            try {
+                while (drained < limit) {
+                    collection.add(head.next.value);
+                    dequeue();
+                    drained++;
+                }
+            } finally {
+                before = drained > 0 ? count.getAndAdd(-drained) : 0;
+                if (before > drained) {
+                    notEmpty.signal();
+                }
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        signalAfterTake(before);
+        return drained;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - count.get();
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        fullyLock();
+        try {
+            for (Node<T> previous = head, node = head.next; node != null; previous = node, node = node.next) {
+                if (o.equals(node.value)) {
+                    unlink(previous, node);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        fullyLock();
+        try {
+            for (Node<T> node = head.next; node != null; node = node.next) {
+                if (o.equals(node.value)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Object[] toArray() {
+        fullyLock();
+        try {
+            Object[] array = new Object[count.get()];
+            int i = 0;
+            for (Node<T> node = head.next; node != null; node = node.next) {
+                array[i++] = node.value;
+            }
+            return array;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int enqueue(T element) {
+        Node<T> node = new Node<>(element);
+        tail.next = node;
+        tail = node;
+        int before = count.getAndIncrement();
+        if (before + 1 < capacity) {
+            notFull.signal();
+        }
+        return before;
+    }
+
+    private T dequeue() {
+        Node<T> first = head.next;
+        head.next = head;
+        head = first;
+        T element = first.value;
+        first.value = null;
+        return element;
+    }
+
+    private void unlink(Node<T> previous, Node<T> node) {
+        node.value = null;
+        previous.next = node.next;
+        if (tail == node) {
+            tail = previous;
+        }
+        if (count.getAndDecrement() == capacity) {
+            notFull.signal();
+        }
+    }
+
+    private void fullyLock() {
+        putLock.lock();
+        takeLock.lock();
+    }
+
+    private void fullyUnlock() {
+        takeLock.unlock();
+        putLock.unlock();
+    }
+
+    private void signalAfterPut(int before) {
+        if (before == 0) {
+            takeLock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                takeLock.unlock();
+            }
+        }
+    }
+
+    private void signalAfterTake(int before) {
+        if (before == capacity) {
+            putLock.lock();
+            try {
+                notFull.signal();
+            } finally {
+                putLock.unlock();
+            }
+        }
+    }
+
+    private class Itr implements Iterator<T> {
+        private Node<T> nextNode;
+        private T nextElement;
+        private Node<T> lastNode;
+
+        Itr() {
+            fullyLock();
+            try {
+                advance(head);
+            } finally {
+                fullyUnlock();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public T next() {
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            T element = nextElement;
+            lastNode = nextNode;
+            fullyLock();
+            try {
+                advance(nextNode);
+            } finally {
+                fullyUnlock();
+            }
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            Node<T> removed = lastNode;
+            if (removed == null) {
+                throw new IllegalStateException();
+            }
+            lastNode = null;
+            fullyLock();
+            try {
+                for (Node<T> previous = head, node = head.next; node != null; previous = node, node = node.next) {
+                    if (node == removed) {
+                        unlink(previous, node);
+                        break;
+                    }
+                }
+            } finally {
+                fullyUnlock();
+            }
+        }
+
+        private void advance(Node<T> from) {
+            Node<T> node = from;
+            do {
+                Node<T> next = node.next;
+                node = next == node ? head.next : next;
+            } while (node != null && node.value == null);
+            nextNode = node;
+            nextElement = node != null ? node.value : null;
+        }
+    }
+
+    private static class Node<E> {
+        private E value;
+        private Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+public class LinkedHashMap<K, V> extends HashMap<K, V> {
+    private final boolean accessOrder;
+    private LinkedNode<K, V> head;
+    private LinkedNode<K, V> tail;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    public LinkedHashMap() {
+        this(16, 0.75);
+    }
+
+    public LinkedHashMap(int capacity) {
+        this(capacity, 0.75);
+    }
+
+    public LinkedHashMap(int capacity, double loadFactor) {
+        this(capacity, loadFactor, false);
+    }
+
+    public LinkedHashMap(int capacity, double loadFactor, boolean accessOrder) {
+        this(capacity, loadFactor, accessOrder, 0);
+    }
+
+    public LinkedHashMap(int capacity, double loadFactor, boolean accessOrder, double shrinkLoadFactor) {
+        super(capacity, loadFactor, false, shrinkLoadFactor);
+        this.accessOrder = accessOrder;
+    }
+
+    public boolean isAccessOrder() {
+        return accessOrder;
+    }
+
+    public Map.Entry<K, V> firstEntry() {
+        return head != null ? new AbstractMap.SimpleImmutableEntry<>(head.key, head.value) : null;
+    }
+
+    public Map.Entry<K, V> lastEntry() {
+        return tail != null ? new AbstractMap.SimpleImmutableEntry<>(tail.key, tail.value) : null;
+    }
+
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(head);
+    }
+
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(tail);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (LinkedNode<K, V> node = head; node != null; node = node.after) {
+            if (Objects.equals(node.value, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (m == this || m.isEmpty()) {
+            return;
+        }
+        ensureCapacity(size() + m.size());
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        head = null;
+        tail = null;
+    }
+
+    @Override
+    public void clear(int capacity) {
+        super.clear(capacity);
+        head = null;
+        tail = null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        long expectedVersion = version;
+        for (LinkedNode<K, V> node = head; node != null; node = node.after) {
+            action.accept(node.key, node.value);
+        }
+        if (expectedVersion != version) {
+            throw concurrentModification();
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        if (function == null) {
+            throw new NullPointerException();
+        }
+        long expectedVersion = version;
+        for (LinkedNode<K, V> node = head; node != null; node = node.after) {
+            node.value = function.apply(node.key, node.value);
+        }
+        if (expectedVersion != version) {
+            throw concurrentModification();
+        }
+        version++;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> view = keySet;
+        if (view == null) {
+            view = new LinkedKeySet();
+            keySet = view;
+        }
+        return view;
+    }
+
+    @Override
+    public Collection<V> values() {
+        Collection<V> view = values;
+        if (view == null) {
+            view = new LinkedValues();
+            values = view;
+        }
+        return view;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> view = entrySet;
+        if (view == null) {
+            view = new LinkedEntrySet();
+            entrySet = view;
+        }
+        return view;
+    }
+
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return false;
+    }
+
+    @Override
+    Node<K, V> newNode(int hash, K key, V value) {
+        LinkedNode<K, V> node = new LinkedNode<>(hash, key, value);
+        linkLast(node);
+        return node;
+    }
+
+    @Override
+    Node<K, V> replacementNode(Node<K, V> node) {
+        LinkedNode<K, V> replacement = new LinkedNode<>(node.hash, node.key, node.value);
+        transferLinks(node, replacement);
+        return replacement;
+    }
+
+    @Override
+    boolean parallelTransferSupported() {
+        return false;
+    }
+
+    @Override
+    void transferLinks(Node<K, V> source, Node<K, V> target) {
+        LinkedNode<K, V> from = (LinkedNode<K, V>) source;
+        LinkedNode<K, V> to = (LinkedNode<K, V>) target;
+        LinkedNode<K, V> before = from.before;
+        LinkedNode<K, V> after = from.after;
+        to.before = before;
+        to.after = after;
+        if (before == null) {
+            head = to;
+        } else {
+            before.after = to;
+        }
+        if (after == null) {
+            tail = to;
+        } else {
+            after.before = to;
+        }
+    }
+
+    @Override
+    void afterNodeAccess(Node<K, V> node) {
+        if (accessOrder && node != tail) {
+            LinkedNode<K, V> linked = (LinkedNode<K, V>) node;
+            unlink(linked);
+            linkLast(linked);
+            version++;
+        }
+    }
+
+    @Override
+    void afterNodeInsertion() {
+        LinkedNode<K, V> eldest = head;
+        if (eldest != null && removeEldestEntry(eldest)) {
+            removeNode(eldest.key, true);
+        }
+    }
+
+    @Override
+    void afterNodeRemoval(Node<K, V> node) {
+        unlink((LinkedNode<K, V>) node);
+    }
+
+    private Map.Entry<K, V> poll(LinkedNode<K, V> node) {
+        if (node == null) {
+            return null;
+        }
+        Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+        removeNode(node.key, true);
+        return entry;
+    }
+
+    private void linkLast(LinkedNode<K, V> node) {
+        LinkedNode<K, V> last = tail;
+        node.before = last;
+        node.after = null;
+        if (last == null) {
+            head = node;
+        } else {
+            last.after = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(LinkedNode<K, V> node) {
+        LinkedNode<K, V> before = node.before;
+        LinkedNode<K, V> after = node.after;
+        if (before == null) {
+            head = after;
+        } else {
+            before.after = after;
+        }
+        if (after == null) {
+            tail = before;
+        } else {
+            after.before = before;
+        }
+        node.before = null;
+        node.after = null;
+    }
+
+    private class LinkedKeySet extends AbstractSet<K> {
+
+        @Override
+        public Iterator<K> iterator() {
+            return new LinkedKeyIterator();
+        }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.SIZED | Spliterator.ORDERED | Spliterator.DISTINCT);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return removeNode(o, true) != null;
+        }
+
+        @Override
+        public int size() {
+            return LinkedHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            LinkedHashMap.this.clear();
+        }
+    }
+
+    private class LinkedValues extends AbstractCollection<V> {
+
+        @Override
+        public Iterator<V> iterator() {
+            return new LinkedValueIterator();
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.SIZED | Spliterator.ORDERED);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public int size() {
+            return LinkedHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            LinkedHashMap.this.clear();
+        }
+    }
+
+    private class LinkedEntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new LinkedEntryIterator();
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.SIZED | Spliterator.ORDERED | Spliterator.DISTINCT);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Map.Entry) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                Node<K, V> node = getNode(entry.getKey());
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
+            return false;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                removeNode(((Map.Entry<?, ?>) o).getKey(), true);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return LinkedHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            LinkedHashMap.this.clear();
+        }
+    }
+
+    private abstract class LinkedIterator<E> implements Iterator<E> {
+        LinkedNode<K, V> current;
+        LinkedNode<K, V> next = head;
+        long versionIterator = version;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        LinkedNode<K, V> nextNode() {
+            checkLastModified();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = next.after;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            checkLastModified();
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            removeNode(current.key, false);
+            current = null;
+            versionIterator = version;
+        }
+
+        private void checkLastModified() {
+            if (versionIterator != version) {
+                throw concurrentModification();
+            }
+        }
+    }
+
+    private class LinkedKeyIterator extends LinkedIterator<K> {
+
+        @Override
+        public K next() {
+            return nextNode().key;
+        }
+    }
+
+    private class LinkedValueIterator extends LinkedIterator<V> {
+
+        @Override
+        public V next() {
+            return nextNode().value;
+        }
+    }
+
+    private class LinkedEntryIterator extends LinkedIterator<Map.Entry<K, V>> {
+
+        @Override
+        public Map.Entry<K, V> next() {
+            return nextNode();
+        }
+    }
+
+    static class LinkedNode<K, V> extends Node<K, V> {
+        LinkedNode<K, V> before;
+        LinkedNode<K, V> after;
+
+        LinkedNode(int hash, K key, V value) {
+            super(hash, key, value, null);
+        }
+    }
+}
@@ -1,8 +1,14 @@
 import java.util.*;
+import java.util.function.Consumer;
 
 public class LinkedList<T> extends AbstractList<T> {
+    private static final int BATCH_UNIT = 1 << 10;
+    private static final int MAX_BATCH = 1 << 25;
     private Node<T> firstElement;
     private Node<T> lastElement;
+    private Node<T> fingerNode;
+    private int fingerIndex;
+    private Recorder stats;
     private long version;
     private int size;
 
@@ -39,31 +45,16 @@ public class LinkedList<T> extends AbstractList<T> {
             throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
         }
 
-        Node<T> nodeElement = new Node<>(element);
-        if (index == 0) {
-            if (size == 0) {
-                firstElement = nodeElement;
-            } else {
-                nodeElement.setNext(firstElement);
-                firstElement.setPrevious(nodeElement);
-                firstElement = nodeElement;
-            }
-        } else if (index == size) {
-            lastElement.setNext(nodeElement);
-            nodeElement.setPrevious(lastElement);
-            lastElement = nodeElement;
+        if (index == size) {
+            add(element);
         } else {
-            Node<T> find = findNode(index);
-            Node<T> prev = find.getPrevious();
-
-            prev.setNext(nodeElement);
-            find.setPrevious(nodeElement);
-
-            nodeElement.setPrevious(prev);
-            nodeElement.setNext(find);
+            linkBefore(element, findNode(index), index);
         }
-        version++;
-        size++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(size, c);
     }
 
     @Override
@@ -76,33 +67,43 @@ public class LinkedList<T> extends AbstractList<T> {
             return false;
         }
 
-        LinkedList<T> insertList = new LinkedList<>();
-        insertList.addAll(c);
-
-        if (index == 0) {
-            if (size == 0) {
-                firstElement = insertList.firstElement;
-                lastElement = insertList.firstElement;
+        Node<T> first = null;
+        Node<T> last = null;
+        int count = 0;
+        for (T element : c) {
+            Node<T> node = new Node<>(element);
+            if (last == null) {
+                first = node;
             } else {
-                firstElement.setPrevious(insertList.lastElement);
-                insertList.lastElement.setNext(firstElement);
-                firstElement = insertList.firstElement;
+                last.setNext(node);
+                node.setPrevious(last);
             }
-        } else if (index == size) {
-            lastElement.setNext(insertList.firstElement);
-            insertList.firstElement.setPrevious(lastElement);
-            lastElement = insertList.lastElement;
-        } else {
-            Node<T> find = findNode(index);
-            Node<T> prev = find.getPrevious();
+            last = node;
+            count++;
+        }
+        if (count == 0) {
+            return false;
+        }
 
-            prev.setNext(insertList.firstElement);
-            insertList.lastElement.setPrevious(prev);
+        Node<T> successor = index == size ? null : findNode(index);
+        Node<T> prev = successor == null ? lastElement : successor.getPrevious();
+        first.setPrevious(prev);
+        if (prev == null) {
+            firstElement = first;
+        } else {
+            prev.setNext(first);
+        }
+        last.setNext(successor);
+        if (successor == null) {
+            lastElement = last;
+        } else {
+            successor.setPrevious(last);
+        }
 
-            insertList.lastElement.setNext(find);
-            find.setPrevious(insertList.lastElement);
+        if (fingerNode != null && index <= fingerIndex) {
+            fingerIndex += count;
         }
-        size += insertList.size();
+        size += count;
         version++;
         return true;
     }
@@ -131,33 +132,7 @@ public class LinkedList<T> extends AbstractList<T> {
     public T remove(int index) {
         checkIndex(index);
 
-        T old;
-        if (index == 0) {
-            old = firstElement.getValue();
-            if (firstElement.hasNext()) {
-                firstElement = firstElement.getNext();
-                firstElement.setPrevious(null);
-            } else {
-                firstElement = null;
-            }
-        } else if (index == size - 1) {
-            Node<T> prev = lastElement.getPrevious();
-            prev.setNext(null);
-            old = lastElement.getValue();
-            lastElement = prev;
-        } else {
-            Node<T> removeNode = findNode(index);
-            Node<T> prev = removeNode.getPrevious();
-            Node<T> next = removeNode.getNext();
-
-            prev.setNext(next);
-            next.setPrevious(prev);
-
-            old = removeNode.getValue();
-        }
-        size--;
-        version++;
-        return old;
+        return unlink(index == size - 1 ? lastElement : findNode(index), index);
     }
 
     @Override
@@ -198,6 +173,7 @@ public class LinkedList<T> extends AbstractList<T> {
     public void clear() {
         firstElement = null;
         lastElement = null;
+        fingerNode = null;
         size = 0;
         version++;
     }
@@ -214,18 +190,31 @@ public class LinkedList<T> extends AbstractList<T> {
 
     @Override
     public ListIterator<T> listIterator() {
-        return new InnerListIterator();
+        return new InnerListIterator(firstElement, 0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int fromIndex) {
+        if (fromIndex < 0 || fromIndex > size) {
+            throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + size);
+        }
+        return new InnerListIterator(fromIndex == size ? null : findNode(fromIndex), fromIndex);
     }
 
     public class InnerListIterator implements ListIterator<T> {
-        private int cursorIndex = -1;
-        private Node<T> cursorNode = firstElement;
+        private int cursorIndex;
+        private Node<T> cursorNode;
+        private Node<T> lastReturned;
         private long innerVersion = version;
-        private boolean throwException = true;
+
+        InnerListIterator(Node<T> cursorNode, int cursorIndex) {
+            this.cursorNode = cursorNode;
+            this.cursorIndex = cursorIndex;
+        }
 
         @Override
         public boolean hasNext() {
-            return cursorIndex < size - 1;
+            return cursorIndex < size;
         }
 
         @Override
@@ -234,98 +223,369 @@ public class LinkedList<T> extends AbstractList<T> {
             if (cursorNode == null) {
                 throw new NoSuchElementException();
             }
-            T val = cursorNode.getValue();
+            lastReturned = cursorNode;
             cursorNode = cursorNode.getNext();
             cursorIndex++;
-            throwException = false;
-            return val;
+            return lastReturned.getValue();
         }
 
         @Override
         public boolean hasPrevious() {
-            return cursorNode.hasPrevious();
+            return cursorIndex > 0;
         }
 
         @Override
         public T previous() {
             checkLastModified();
-            if (cursorNode == null || cursorNode.getPrevious() == null) {
+            if (cursorIndex <= 0) {
                 throw new NoSuchElementException();
             }
-            T val = cursorNode.getPrevious().getValue();
-            cursorNode = cursorNode.getPrevious();
+            cursorNode = cursorNode == null ? lastElement : cursorNode.getPrevious();
+            lastReturned = cursorNode;
             cursorIndex--;
-            throwException = false;
-            return val;
+            return lastReturned.getValue();
         }
 
         @Override
         public int nextIndex() {
-            return cursorNode != null && cursorNode.hasNext() ? cursorIndex + 1 : size;
+            return cursorIndex;
         }
 
         @Override
         public int previousIndex() {
-            return cursorNode != null && cursorNode.hasPrevious() ? cursorIndex - 1 : -1;
+            return cursorIndex - 1;
         }
 
         @Override
         public void remove() {
             checkCorrectCalls();
-            throwException = true;
-            LinkedList.this.remove(cursorIndex);
+            checkLastModified();
+            if (lastReturned == cursorNode) {
+                cursorNode = lastReturned.getNext();
+                unlink(lastReturned, cursorIndex);
+            } else {
+                unlink(lastReturned, --cursorIndex);
+            }
+            lastReturned = null;
             innerVersion = version;
         }
 
         @Override
         public void set(T element) {
-            throw new UnsupportedOperationException();
+            checkCorrectCalls();
+            checkLastModified();
+            lastReturned.setValue(element);
+            version++;
+            innerVersion = version;
         }
 
         @Override
         public void add(T element) {
-            throw new UnsupportedOperationException();
+            checkLastModified();
+            if (cursorNode == null) {
+                LinkedList.this.add(element);
+            } else {
+                linkBefore(element, cursorNode, cursorIndex);
+            }
+            cursorIndex++;
+            lastReturned = null;
+            innerVersion = version;
         }
 
         private void checkLastModified() {
             if (innerVersion != version) {
-                throw new ConcurrentModificationException();
+                throw concurrentModification();
             }
         }
 
         private void checkCorrectCalls() {
-            if (throwException) {
+            if (lastReturned == null) {
                 throw new IllegalStateException();
             }
         }
     }
 
     @Override
-    public ListIterator<T> listIterator(int fromIndex) {
-        checkIndex(fromIndex);
-        return subList(fromIndex, size - 1).listIterator();
+    public List<T> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size);
+        }
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("From: " + fromIndex + " > To: " + toIndex);
+        }
+        Node<T> before = fromIndex == 0 ? null : findNode(fromIndex - 1);
+        Node<T> after = toIndex == size ? null : findNode(toIndex);
+        return new SubList(null, before, after, fromIndex, toIndex - fromIndex);
+    }
+
+    private class SubList extends AbstractList<T> {
+        private final SubList parent;
+        private final Node<T> before;
+        private final Node<T> after;
+        private final int offset;
+        private int size;
+        private long innerVersion = version;
+
+        SubList(SubList parent, Node<T> before, Node<T> after, int offset, int size) {
+            this.parent = parent;
+            this.before = before;
+            this.after = after;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            checkIndex(index);
+            checkLastModified();
+            return node(index).getValue();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            checkIndex(index);
+            checkLastModified();
+            Node<T> node = node(index);
+            T old = node.getValue();
+            node.setValue(element);
+            version++;
+            updateSize(0);
+            return old;
+        }
+
+        @Override
+        public void add(int index, T element) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            checkLastModified();
+            if (index == size && after == null) {
+                LinkedList.this.add(element);
+            } else {
+                linkBefore(element, index == size ? after : node(index), offset + index);
+            }
+            updateSize(1);
+        }
+
+        @Override
+        public T remove(int index) {
+            checkIndex(index);
+            checkLastModified();
+            T old = unlink(node(index), offset + index);
+            updateSize(-1);
+            return old;
+        }
+
+        @Override
+        public int size() {
+            checkLastModified();
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return listIterator();
+        }
+
+        @Override
+        public ListIterator<T> listIterator(int fromIndex) {
+            if (fromIndex < 0 || fromIndex > size) {
+                throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + size);
+            }
+            checkLastModified();
+            InnerListIterator iterator = new InnerListIterator(fromIndex == size ? after : node(fromIndex),
+                    offset + fromIndex);
+
+            return new ListIterator<T>() {
+
+                @Override
+                public boolean hasNext() {
+                    return nextIndex() < size;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return iterator.next();
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return previousIndex() >= 0;
+                }
+
+                @Override
+                public T previous() {
+                    if (!hasPrevious()) {
+                        throw new NoSuchElementException();
+                    }
+                    return iterator.previous();
+                }
+
+                @Override
+                public int nextIndex() {
+                    return iterator.nextIndex() - offset;
+                }
+
+                @Override
+                public int previousIndex() {
+                    return iterator.previousIndex() - offset;
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    updateSize(-1);
+                }
+
+                @Override
+                public void set(T element) {
+                    iterator.set(element);
+                    updateSize(0);
+                }
+
+                @Override
+                public void add(T element) {
+                    iterator.add(element);
+                    updateSize(1);
+                }
+            };
+        }
+
+        @Override
+        public List<T> subList(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > size) {
+                throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size);
+            }
+            if (fromIndex > toIndex) {
+                throw new IllegalArgumentException("From: " + fromIndex + " > To: " + toIndex);
+            }
+            checkLastModified();
+            Node<T> subBefore = fromIndex == 0 ? before : node(fromIndex - 1);
+            Node<T> subAfter = toIndex == size ? after : node(toIndex);
+            return new SubList(this, subBefore, subAfter, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        private Node<T> node(int index) {
+            Node<T> node;
+            if (index < (size >> 1)) {
+                node = before == null ? firstElement : before.getNext();
+                for (int i = 0; i < index; i++) {
+                    node = node.getNext();
+                }
+            } else {
+                node = after == null ? lastElement : after.getPrevious();
+                for (int i = size - 1; i > index; i--) {
+                    node = node.getPrevious();
+                }
+            }
+            return node;
+        }
+
+        private void updateSize(int delta) {
+            for (SubList subList = this; subList != null; subList = subList.parent) {
+                subList.size += delta;
+                subList.innerVersion = version;
+            }
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        private void checkLastModified() {
+            if (innerVersion != version) {
+                throw concurrentModification();
+            }
+        }
     }
 
     @Override
-    public List<T> subList(int fromIndex, int toIndex) {
-        if (fromIndex > toIndex) {
-            throw new IllegalArgumentException();
+    public Spliterator<T> spliterator() {
+        return new LinkedListSpliterator(firstElement, size, version);
+    }
+
+    private class LinkedListSpliterator implements Spliterator<T> {
+        private final long expectedVersion;
+        private Node<T> current;
+        private int estimate;
+        private int batch;
+
+        LinkedListSpliterator(Node<T> current, int estimate, long expectedVersion) {
+            this.current = current;
+            this.estimate = estimate;
+            this.expectedVersion = expectedVersion;
         }
-        if (fromIndex != 0 && toIndex != 0) {
-            checkIndex(fromIndex);
-            checkIndex(toIndex);
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Node<T> node = current;
+            if (node == null || estimate <= 1) {
+                return null;
+            }
+            int length = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), estimate);
+            Object[] array = new Object[length];
+            int count = 0;
+            do {
+                array[count++] = node.getValue();
+                node = node.getNext();
+            } while (node != null && count < length);
+            current = node;
+            batch = count;
+            estimate -= count;
+            return Spliterators.spliterator(array, 0, count, Spliterator.ORDERED);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (current == null || estimate <= 0) {
+                return false;
+            }
+            T value = current.getValue();
+            current = current.getNext();
+            estimate--;
+            action.accept(value);
+            checkLastModified();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            Node<T> node = current;
+            for (int i = estimate; node != null && i > 0; i--) {
+                action.accept(node.getValue());
+                node = node.getNext();
+            }
+            current = null;
+            estimate = 0;
+            checkLastModified();
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
         }
 
-        List<T> subList = new LinkedList<>();
-        if (size > 0) {
-            Node<T> startNode = findNode(fromIndex);
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
 
-            for (int i = fromIndex; i <= toIndex; i++) {
-                subList.add(startNode.getValue());
-                startNode = startNode.getNext();
+        private void checkLastModified() {
+            if (expectedVersion != version) {
+                throw concurrentModification();
             }
         }
-        return subList;
     }
 
     public T getFirstElement() {
@@ -336,37 +596,138 @@ public class LinkedList<T> extends AbstractList<T> {
         return lastElement != null ? lastElement.getValue() : null;
     }
 
+    public void enableStats() {
+        if (stats == null) {
+            stats = new Recorder();
+        }
+    }
+
+    public void disableStats() {
+        stats = null;
+    }
+
+    public boolean isStatsEnabled() {
+        return stats != null;
+    }
+
+    public void resetStats() {
+        if (stats != null) {
+            stats = new Recorder();
+        }
+    }
+
+    public LinkedListStats getStats() {
+        Recorder recorder = stats != null ? stats : new Recorder();
+        return new LinkedListStats(size, recorder.findNodeCount, recorder.totalDistance, recorder.maxDistance,
+                recorder.distances.clone(), recorder.concurrentModificationCount);
+    }
+
     private Node<T> findNode(int foundIndexNode) {
         checkIndex(foundIndexNode);
 
         int i;
         Node<T> foundNode;
-        double half = size / 2.;
+        int fromLast = size - 1 - foundIndexNode;
 
-        if (foundIndexNode < half) {
+        if (fingerNode != null && Math.abs(foundIndexNode - fingerIndex) < Math.min(foundIndexNode, fromLast)) {
+            foundNode = fingerNode;
+            i = fingerIndex;
+        } else if (foundIndexNode < fromLast) {
             foundNode = firstElement;
             i = 0;
-            while (foundIndexNode != i) {
-                foundNode = foundNode.getNext();
-                i++;
-            }
         } else {
             foundNode = lastElement;
             i = size - 1;
-            while (foundIndexNode != i) {
-                foundNode = foundNode.getPrevious();
-                i--;
-            }
         }
+        if (stats != null) {
+            stats.recordFind(Math.abs(foundIndexNode - i));
+        }
+        while (i < foundIndexNode) {
+            foundNode = foundNode.getNext();
+            i++;
+        }
+        while (i > foundIndexNode) {
+            foundNode = foundNode.getPrevious();
+            i--;
+        }
+        fingerNode = foundNode;
+        fingerIndex = foundIndexNode;
         return foundNode;
     }
 
+    private void linkBefore(T element, Node<T> successor, int index) {
+        Node<T> nodeElement = new Node<>(element);
+        Node<T> prev = successor.getPrevious();
+
+        nodeElement.setPrevious(prev);
+        nodeElement.setNext(successor);
+        successor.setPrevious(nodeElement);
+        if (prev == null) {
+            firstElement = nodeElement;
+        } else {
+            prev.setNext(nodeElement);
+        }
+        if (fingerNode != null && index <= fingerIndex) {
+            fingerIndex++;
+        }
+        size++;
+        version++;
+    }
+
+    private T unlink(Node<T> node, int index) {
+        Node<T> prev = node.getPrevious();
+        Node<T> next = node.getNext();
+
+        if (prev == null) {
+            firstElement = next;
+        } else {
+            prev.setNext(next);
+        }
+        if (next == null) {
+            lastElement = prev;
+        } else {
+            next.setPrevious(prev);
+        }
+        if (fingerNode != null && index <= fingerIndex) {
+            if (index == fingerIndex) {
+                fingerNode = next;
+            } else {
+                fingerIndex--;
+            }
+        }
+        size--;
+        version++;
+        return node.getValue();
+    }
+
     private void checkIndex(int index) {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
         }
     }
 
+    private ConcurrentModificationException concurrentModification() {
+        if (stats != null) {
+            stats.concurrentModificationCount++;
+        }
+        return new ConcurrentModificationException();
+    }
+
+    private static class Recorder {
+        long findNodeCount;
+        long totalDistance;
+        long maxDistance;
+        long concurrentModificationCount;
+        final long[] distances = new long[Integer.SIZE + 1];
+
+        void recordFind(int distance) {
+            findNodeCount++;
+            totalDistance += distance;
+            maxDistance = Math.max(maxDistance, distance);
+            distances[Integer.SIZE - Integer.numberOfLeadingZeros(distance)]++;
+        }
+    }
+
     private static class Node<E> {
         private Node<E> next;
         private Node<E> previous;
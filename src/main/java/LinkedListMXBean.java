@@ -0,0 +1,5 @@
+public interface LinkedListMXBean {
+    LinkedListStats getStats();
+
+    void resetStats();
+}
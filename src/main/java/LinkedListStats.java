@@ -0,0 +1,59 @@
+import java.util.*;
+
+public class LinkedListStats {
+    private final int size;
+    private final long findNodeCount;
+    private final long totalDistance;
+    private final long maxDistance;
+    private final long[] distances;
+    private final long concurrentModificationCount;
+
+    LinkedListStats(int size, long findNodeCount, long totalDistance, long maxDistance, long[] distances,
+                    long concurrentModificationCount) {
+        this.size = size;
+        this.findNodeCount = findNodeCount;
+        this.totalDistance = totalDistance;
+        this.maxDistance = maxDistance;
+        this.distances = distances;
+        this.concurrentModificationCount = concurrentModificationCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getFindNodeCount() {
+        return findNodeCount;
+    }
+
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+
+    public double getAverageDistance() {
+        return findNodeCount == 0 ? 0 : (double) totalDistance / findNodeCount;
+    }
+
+    public long getMaxDistance() {
+        return maxDistance;
+    }
+
+    public long[] getDistances() {
+        return distances.clone();
+    }
+
+    public long getConcurrentModificationCount() {
+        return concurrentModificationCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LinkedListStats{size=" + size
+                + ", findNodeCount=" + findNodeCount
+                + ", averageDistance=" + getAverageDistance()
+                + ", maxDistance=" + maxDistance
+                + ", distances=" + Arrays.toString(distances)
+                + ", concurrentModificationCount=" + concurrentModificationCount
+                + '}';
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.*;
+
+public class LongLongMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private final double LOAD_FACTOR;
+    private final long noValue;
+    private long[] keys;
+    private long[] values;
+    private boolean hasZeroKey;
+    private long zeroValue;
+    private long version;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public LongLongMap() {
+        this(DEFAULT_CAPACITY, 0.75, 0);
+    }
+
+    public LongLongMap(int capacity) {
+        this(capacity, 0.75, 0);
+    }
+
+    public LongLongMap(int capacity, double loadFactor, long noValue) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.LOAD_FACTOR = loadFactor;
+        this.noValue = noValue;
+        this.zeroValue = noValue;
+        allocate(tableSizeFor((int) Math.ceil(capacity / loadFactor)));
+    }
+
+    public long put(long key, long value) {
+        if (key == 0) {
+            long old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            version++;
+            return old;
+        }
+
+        int index = spread(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                long old = values[index];
+                values[index] = value;
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        version++;
+        if (++size - (hasZeroKey ? 1 : 0) > maxFill) {
+            reBuild(keys.length << 1);
+        }
+        return noValue;
+    }
+
+    public long addTo(long key, long increment) {
+        if (key == 0) {
+            long old = zeroValue;
+            zeroValue = (hasZeroKey ? old : 0) + increment;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            version++;
+            return old;
+        }
+
+        int index = spread(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                long old = values[index];
+                values[index] = old + increment;
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = increment;
+        version++;
+        if (++size - (hasZeroKey ? 1 : 0) > maxFill) {
+            reBuild(keys.length << 1);
+        }
+        return noValue;
+    }
+
+    public long get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int index = find(key);
+        return index >= 0 ? values[index] : noValue;
+    }
+
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return noValue;
+            }
+            long old = zeroValue;
+            zeroValue = noValue;
+            hasZeroKey = false;
+            size--;
+            version++;
+            return old;
+        }
+
+        int index = find(key);
+        if (index < 0) {
+            return noValue;
+        }
+        long old = values[index];
+        shiftKeys(index);
+        size--;
+        version++;
+        return old;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public void forEach(LongLongConsumer action) {
+        long expectedVersion = version;
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+        if (expectedVersion != version) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        zeroValue = noValue;
+        size = 0;
+        version++;
+    }
+
+    public long getNoValue() {
+        return noValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int find(long key) {
+        int index = spread(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int index) {
+        int last = index;
+        int slot;
+        long key;
+        for (; ; ) {
+            slot = (last + 1) & mask;
+            while ((key = keys[slot]) != 0) {
+                int ideal = spread(key) & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (key == 0) {
+                break;
+            }
+            keys[last] = key;
+            values[last] = values[slot];
+            last = slot;
+        }
+        keys[last] = 0;
+    }
+
+    private void reBuild(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int index = spread(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+        this.maxFill = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int spread(long key) {
+        long h = key * GOLDEN_RATIO;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        return n >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+}
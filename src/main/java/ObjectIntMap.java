@@ -0,0 +1,260 @@
+import java.util.*;
+
+public class ObjectIntMap<K> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private final double LOAD_FACTOR;
+    private final int noValue;
+    private K[] keys;
+    private int[] values;
+    private boolean hasNullKey;
+    private int nullValue;
+    private long version;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public ObjectIntMap() {
+        this(DEFAULT_CAPACITY, 0.75, 0);
+    }
+
+    public ObjectIntMap(int capacity) {
+        this(capacity, 0.75, 0);
+    }
+
+    public ObjectIntMap(int capacity, double loadFactor, int noValue) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.LOAD_FACTOR = loadFactor;
+        this.noValue = noValue;
+        this.nullValue = noValue;
+        allocate(tableSizeFor((int) Math.ceil(capacity / loadFactor)));
+    }
+
+    public int put(K key, int value) {
+        if (key == null) {
+            int old = nullValue;
+            nullValue = value;
+            if (!hasNullKey) {
+                hasNullKey = true;
+                size++;
+            }
+            version++;
+            return old;
+        }
+
+        int index = spread(key.hashCode()) & mask;
+        K current;
+        while ((current = keys[index]) != null) {
+            if (current.equals(key)) {
+                int old = values[index];
+                values[index] = value;
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        version++;
+        if (++size - (hasNullKey ? 1 : 0) > maxFill) {
+            reBuild(keys.length << 1);
+        }
+        return noValue;
+    }
+
+    public int addTo(K key, int increment) {
+        if (key == null) {
+            int old = nullValue;
+            nullValue = (hasNullKey ? old : 0) + increment;
+            if (!hasNullKey) {
+                hasNullKey = true;
+                size++;
+            }
+            version++;
+            return old;
+        }
+
+        int index = spread(key.hashCode()) & mask;
+        K current;
+        while ((current = keys[index]) != null) {
+            if (current.equals(key)) {
+                int old = values[index];
+                values[index] = old + increment;
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = increment;
+        version++;
+        if (++size - (hasNullKey ? 1 : 0) > maxFill) {
+            reBuild(keys.length << 1);
+        }
+        return noValue;
+    }
+
+    public int get(Object key) {
+        if (key == null) {
+            return nullValue;
+        }
+        int index = find(key);
+        return index >= 0 ? values[index] : noValue;
+    }
+
+    public int remove(Object key) {
+        if (key == null) {
+            if (!hasNullKey) {
+                return noValue;
+            }
+            int old = nullValue;
+            nullValue = noValue;
+            hasNullKey = false;
+            size--;
+            version++;
+            return old;
+        }
+
+        int index = find(key);
+        if (index < 0) {
+            return noValue;
+        }
+        int old = values[index];
+        shiftKeys(index);
+        size--;
+        version++;
+        return old;
+    }
+
+    public boolean containsKey(Object key) {
+        return key == null ? hasNullKey : find(key) >= 0;
+    }
+
+    public void forEach(ObjectIntConsumer<? super K> action) {
+        long expectedVersion = version;
+        if (hasNullKey) {
+            action.accept(null, nullValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+        if (expectedVersion != version) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        hasNullKey = false;
+        nullValue = noValue;
+        size = 0;
+        version++;
+    }
+
+    public int getNoValue() {
+        return noValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int find(Object key) {
+        int index = spread(key.hashCode()) & mask;
+        K current;
+        while ((current = keys[index]) != null) {
+            if (current.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int index) {
+        int last = index;
+        int slot;
+        K key;
+        for (; ; ) {
+            slot = (last + 1) & mask;
+            while ((key = keys[slot]) != null) {
+                int ideal = spread(key.hashCode()) & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (key == null) {
+                break;
+            }
+            keys[last] = key;
+            values[last] = values[slot];
+            last = slot;
+        }
+        keys[last] = null;
+    }
+
+    private void reBuild(int newCapacity) {
+        K[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            K key = oldKeys[i];
+            if (key != null) {
+                int index = spread(key.hashCode()) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = (K[]) new Object[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxFill = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int spread(int hash) {
+        int h = hash * GOLDEN_RATIO;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        return n >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    @FunctionalInterface
+    public interface ObjectIntConsumer<K> {
+        void accept(K key, int value);
+    }
+}
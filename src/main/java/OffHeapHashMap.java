@@ -0,0 +1,448 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+public class OffHeapHashMap<K, V> implements Closeable {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final long MAGIC = 0x4F46464845415031L;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int FORMAT_OFFSET = 8;
+    private static final int KEY_SIZE_OFFSET = 12;
+    private static final int VALUE_SIZE_OFFSET = 16;
+    private static final int CAPACITY_OFFSET = 20;
+    private static final int SIZE_OFFSET = 24;
+    private static final int LOAD_FACTOR_OFFSET = 32;
+    private final double LOAD_FACTOR;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final Path file;
+    private final int keySize;
+    private final int slotSize;
+    private final ByteBuffer keyBuffer;
+    private Storage storage;
+    private long version;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public OffHeapHashMap(Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(null, keySerializer, valueSerializer, DEFAULT_CAPACITY, 0.75);
+    }
+
+    public OffHeapHashMap(Serializer<K> keySerializer, Serializer<V> valueSerializer, int capacity) {
+        this(null, keySerializer, valueSerializer, capacity, 0.75);
+    }
+
+    public OffHeapHashMap(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(file, keySerializer, valueSerializer, DEFAULT_CAPACITY, 0.75);
+    }
+
+    public OffHeapHashMap(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                          int capacity, double loadFactor) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        if (keySerializer.size() <= 0 || valueSerializer.size() < 0
+                || (long) Integer.BYTES + keySerializer.size() + valueSerializer.size() > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Illegal record size: " + keySerializer.size()
+                    + " + " + valueSerializer.size());
+        }
+        this.file = file;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.keySize = keySerializer.size();
+        this.slotSize = Integer.BYTES + keySize + valueSerializer.size();
+        this.keyBuffer = ByteBuffer.allocate(keySize);
+
+        try {
+            if (file != null && Files.exists(file) && Files.size(file) > 0) {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                checkHeader(header);
+                this.LOAD_FACTOR = header.getDouble(LOAD_FACTOR_OFFSET);
+                this.storage = new Storage(channel, header, header.getInt(CAPACITY_OFFSET), slotSize);
+                this.size = (int) header.getLong(SIZE_OFFSET);
+            } else {
+                this.LOAD_FACTOR = loadFactor;
+                this.storage = newStorage(file, tableSizeFor((int) Math.ceil(capacity / loadFactor)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        setCapacity(storage.capacity);
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        checkOpen();
+
+        int hash = serializeKey(key);
+        int index = hash & mask;
+        int current;
+        while ((current = storage.hash(index)) != 0) {
+            if (current == hash && keyEquals(index)) {
+                V old = readValue(index);
+                writeValue(index, value);
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        if (size >= maxFill) {
+            reBuild(storage.capacity << 1);
+            index = hash & mask;
+            while (storage.hash(index) != 0) {
+                index = (index + 1) & mask;
+            }
+        }
+        ByteBuffer segment = storage.segment(index);
+        int offset = storage.offset(index);
+        for (int i = 0; i < keySize; i++) {
+            segment.put(offset + Integer.BYTES + i, keyBuffer.get(i));
+        }
+        writeValue(index, value);
+        segment.putInt(offset, hash);
+        version++;
+        storage.header.putLong(SIZE_OFFSET, ++size);
+        return null;
+    }
+
+    public V get(Object key) {
+        int index = find(key);
+        return index >= 0 ? readValue(index) : null;
+    }
+
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    public V remove(Object key) {
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = readValue(index);
+        shiftKeys(index);
+        size--;
+        storage.header.putLong(SIZE_OFFSET, size);
+        version++;
+        return old;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        checkOpen();
+        long expectedVersion = version;
+        for (int i = 0; i < storage.capacity; i++) {
+            if (storage.hash(i) != 0) {
+                action.accept(readKey(i), readValue(i));
+            }
+        }
+        if (expectedVersion != version) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public void clear() {
+        checkOpen();
+        for (int i = 0; i < storage.capacity; i++) {
+            storage.segment(i).putInt(storage.offset(i), 0);
+        }
+        size = 0;
+        storage.header.putLong(SIZE_OFFSET, 0);
+        version++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void flush() {
+        checkOpen();
+        storage.force();
+    }
+
+    @Override
+    public void close() {
+        if (storage == null) {
+            return;
+        }
+        storage.force();
+        try {
+            storage.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            storage = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        checkOpen();
+
+        int hash = serializeKey((K) key);
+        int index = hash & mask;
+        int current;
+        while ((current = storage.hash(index)) != 0) {
+            if (current == hash && keyEquals(index)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int index) {
+        int last = index;
+        int slot;
+        int hash;
+        for (; ; ) {
+            slot = (last + 1) & mask;
+            while ((hash = storage.hash(slot)) != 0) {
+                int ideal = hash & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (hash == 0) {
+                break;
+            }
+            copySlot(storage, slot, storage, last);
+            last = slot;
+        }
+        storage.segment(last).putInt(storage.offset(last), 0);
+    }
+
+    private void reBuild(int newCapacity) {
+        if (storage.capacity == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Capacity exceeded: " + MAXIMUM_CAPACITY);
+        }
+        Storage old = storage;
+        Path resizeFile = file == null ? null : file.resolveSibling(file.getFileName() + ".resize");
+        try {
+            if (resizeFile != null) {
+                Files.deleteIfExists(resizeFile);
+            }
+            Storage resized = newStorage(resizeFile, newCapacity);
+            int newMask = newCapacity - 1;
+            for (int i = 0; i < old.capacity; i++) {
+                int hash = old.hash(i);
+                if (hash != 0) {
+                    int index = hash & newMask;
+                    while (resized.hash(index) != 0) {
+                        index = (index + 1) & newMask;
+                    }
+                    copySlot(old, i, resized, index);
+                }
+            }
+            resized.header.putLong(SIZE_OFFSET, size);
+            storage = resized;
+            setCapacity(newCapacity);
+
+            if (resizeFile != null) {
+                resized.force();
+                old.close();
+                try {
+                    Files.move(resizeFile, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(resizeFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Storage newStorage(Path target, int capacity) throws IOException {
+        FileChannel channel = null;
+        ByteBuffer header;
+        if (target == null) {
+            header = ByteBuffer.allocate(HEADER_SIZE);
+        } else {
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        }
+        header.putLong(0, MAGIC);
+        header.putInt(FORMAT_OFFSET, FORMAT_VERSION);
+        header.putInt(KEY_SIZE_OFFSET, keySize);
+        header.putInt(VALUE_SIZE_OFFSET, valueSerializer.size());
+        header.putInt(CAPACITY_OFFSET, capacity);
+        header.putLong(SIZE_OFFSET, 0);
+        header.putDouble(LOAD_FACTOR_OFFSET, LOAD_FACTOR);
+        return new Storage(channel, header, capacity, slotSize);
+    }
+
+    private void checkHeader(ByteBuffer header) {
+        if (header.getLong(0) != MAGIC || header.getInt(FORMAT_OFFSET) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not an off-heap map file: " + file);
+        }
+        if (header.getInt(KEY_SIZE_OFFSET) != keySize || header.getInt(VALUE_SIZE_OFFSET) != valueSerializer.size()) {
+            throw new IllegalArgumentException("Record size mismatch: file has "
+                    + header.getInt(KEY_SIZE_OFFSET) + " + " + header.getInt(VALUE_SIZE_OFFSET)
+                    + ", serializers have " + keySize + " + " + valueSerializer.size());
+        }
+    }
+
+    private void setCapacity(int capacity) {
+        this.mask = capacity - 1;
+        this.maxFill = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private int serializeKey(K key) {
+        keySerializer.write(key, keyBuffer, 0);
+        long h = 0;
+        int i = 0;
+        for (; i + Long.BYTES <= keySize; i += Long.BYTES) {
+            h = (h ^ keyBuffer.getLong(i)) * GOLDEN_RATIO;
+        }
+        for (; i < keySize; i++) {
+            h = (h ^ keyBuffer.get(i)) * GOLDEN_RATIO;
+        }
+        int hash = (int) (h ^ (h >>> 32));
+        return hash == 0 ? 1 : hash;
+    }
+
+    private boolean keyEquals(int index) {
+        ByteBuffer segment = storage.segment(index);
+        int offset = storage.offset(index) + Integer.BYTES;
+        int i = 0;
+        for (; i + Long.BYTES <= keySize; i += Long.BYTES) {
+            if (segment.getLong(offset + i) != keyBuffer.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < keySize; i++) {
+            if (segment.get(offset + i) != keyBuffer.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private K readKey(int index) {
+        return keySerializer.read(storage.segment(index), storage.offset(index) + Integer.BYTES);
+    }
+
+    private V readValue(int index) {
+        return valueSerializer.read(storage.segment(index), storage.offset(index) + Integer.BYTES + keySize);
+    }
+
+    private void writeValue(int index, V value) {
+        valueSerializer.write(value, storage.segment(index), storage.offset(index) + Integer.BYTES + keySize);
+    }
+
+    private void copySlot(Storage from, int fromIndex, Storage to, int toIndex) {
+        ByteBuffer source = from.segment(fromIndex);
+        ByteBuffer target = to.segment(toIndex);
+        int sourceOffset = from.offset(fromIndex);
+        int targetOffset = to.offset(toIndex);
+        int i = 0;
+        for (; i + Long.BYTES <= slotSize; i += Long.BYTES) {
+            target.putLong(targetOffset + i, source.getLong(sourceOffset + i));
+        }
+        for (; i < slotSize; i++) {
+            target.put(targetOffset + i, source.get(sourceOffset + i));
+        }
+    }
+
+    private void checkOpen() {
+        if (storage == null) {
+            throw new IllegalStateException("Map is closed");
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        return n >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    private static class Storage {
+        private final FileChannel channel;
+        private final ByteBuffer header;
+        private final ByteBuffer[] segments;
+        private final int capacity;
+        private final int slotSize;
+        private final int segmentShift;
+        private final int segmentMask;
+
+        Storage(FileChannel channel, ByteBuffer header, int capacity, int slotSize) throws IOException {
+            int slotsPerSegment = Math.min(capacity, Integer.highestOneBit(MAX_SEGMENT_BYTES / slotSize));
+            long segmentBytes = (long) slotsPerSegment * slotSize;
+            this.channel = channel;
+            this.header = header;
+            this.capacity = capacity;
+            this.slotSize = slotSize;
+            this.segmentShift = Integer.numberOfTrailingZeros(slotsPerSegment);
+            this.segmentMask = slotsPerSegment - 1;
+            this.segments = new ByteBuffer[capacity / slotsPerSegment];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = channel == null
+                        ? ByteBuffer.allocateDirect((int) segmentBytes)
+                        : channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * segmentBytes, segmentBytes);
+            }
+        }
+
+        ByteBuffer segment(int index) {
+            return segments[index >>> segmentShift];
+        }
+
+        int offset(int index) {
+            return (index & segmentMask) * slotSize;
+        }
+
+        int hash(int index) {
+            return segments[index >>> segmentShift].getInt((index & segmentMask) * slotSize);
+        }
+
+        void force() {
+            if (channel == null) {
+                return;
+            }
+            ((MappedByteBuffer) header).force();
+            for (ByteBuffer segment : segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+        }
+
+        void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
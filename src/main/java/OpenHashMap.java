@@ -0,0 +1,446 @@
+import java.util.*;
+
+public class OpenHashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private final double LOAD_FACTOR;
+    private K[] keys;
+    private V[] values;
+    private boolean hasNullKey;
+    private V nullValue;
+    private long version;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public OpenHashMap() {
+        this(DEFAULT_CAPACITY, 0.75);
+    }
+
+    public OpenHashMap(int capacity) {
+        this(capacity, 0.75);
+    }
+
+    public OpenHashMap(int capacity, double loadFactor) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Double.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.LOAD_FACTOR = loadFactor;
+        allocate(tableSizeFor((int) Math.ceil(capacity / loadFactor)));
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (key == null) {
+            V old = nullValue;
+            nullValue = value;
+            if (!hasNullKey) {
+                hasNullKey = true;
+                size++;
+            }
+            version++;
+            return old;
+        }
+
+        int index = spread(key.hashCode()) & mask;
+        K current;
+        while ((current = keys[index]) != null) {
+            if (current.equals(key)) {
+                V old = values[index];
+                values[index] = value;
+                version++;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        version++;
+        if (++size - (hasNullKey ? 1 : 0) > maxFill) {
+            reBuild(keys.length << 1);
+        }
+        return null;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null) {
+            return nullValue;
+        }
+        int index = find(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            if (!hasNullKey) {
+                return null;
+            }
+            V old = nullValue;
+            nullValue = null;
+            hasNullKey = false;
+            size--;
+            version++;
+            return old;
+        }
+
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = values[index];
+        shiftKeys(index, null);
+        size--;
+        version++;
+        return old;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key == null ? hasNullKey : find(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (hasNullKey && Objects.equals(nullValue, value)) {
+            return true;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && Objects.equals(values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        hasNullKey = false;
+        nullValue = null;
+        size = 0;
+        version++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new OpenHashMapIterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (o instanceof Map.Entry) {
+                    Map.Entry entry = (Entry) o;
+                    Object key = entry.getKey();
+                    return containsKey(key) && Objects.equals(get(key), entry.getValue());
+                }
+                return false;
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (contains(o)) {
+                    OpenHashMap.this.remove(((Entry) o).getKey());
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                OpenHashMap.this.clear();
+            }
+        };
+    }
+
+    private class OpenHashMapIterator implements Iterator<Entry<K, V>> {
+        int slotIndex = keys.length;
+        int nextIndex = -1;
+        boolean nextNull = hasNullKey;
+        List<K> wrapped;
+        int wrappedIndex;
+        Entry<K, V> current;
+        boolean throwException = true;
+        long versionIterator = version;
+
+        OpenHashMapIterator() {
+            findNext();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNull || nextIndex >= 0 || (wrapped != null && wrappedIndex < wrapped.size());
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            checkLastModified();
+
+            if (nextNull) {
+                nextNull = false;
+                current = new NullEntry();
+            } else if (nextIndex >= 0) {
+                current = new SlotEntry(nextIndex);
+                findNext();
+            } else if (wrapped != null && wrappedIndex < wrapped.size()) {
+                K key = wrapped.get(wrappedIndex++);
+                current = new AbstractMap.SimpleEntry<K, V>(key, get(key)) {
+                    @Override
+                    public V setValue(V value) {
+                        int index = find(getKey());
+                        if (index >= 0) {
+                            values[index] = value;
+                        }
+                        return super.setValue(value);
+                    }
+                };
+            } else {
+                throw new NoSuchElementException();
+            }
+            throwException = false;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            checkLastModified();
+
+            if (throwException) {
+                throw new IllegalStateException();
+            }
+            if (current instanceof OpenHashMap.SlotEntry) {
+                removeSlot(((OpenHashMap.SlotEntry) current).index);
+            } else {
+                OpenHashMap.this.remove(current.getKey());
+            }
+            versionIterator = version;
+            throwException = true;
+        }
+
+        private void findNext() {
+            while (--slotIndex >= 0) {
+                if (keys[slotIndex] != null) {
+                    nextIndex = slotIndex;
+                    return;
+                }
+            }
+            nextIndex = -1;
+        }
+
+        private void removeSlot(int index) {
+            shiftKeys(index, this);
+            size--;
+            version++;
+            if (nextIndex >= 0 && keys[nextIndex] == null) {
+                slotIndex = nextIndex;
+                findNext();
+            }
+        }
+
+        private void addWrapped(K key) {
+            if (wrapped == null) {
+                wrapped = new ArrayList<>(2);
+            }
+            wrapped.add(key);
+        }
+
+        private void checkLastModified() {
+            if (versionIterator != version) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private class SlotEntry implements Map.Entry<K, V> {
+        private final int index;
+        private final K key;
+
+        SlotEntry(int index) {
+            this.index = index;
+            this.key = keys[index];
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return keys[index] == key ? values[index] : get(key);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (keys[index] == key) {
+                V old = values[index];
+                values[index] = value;
+                return old;
+            }
+            int moved = find(key);
+            if (moved < 0) {
+                return null;
+            }
+            V old = values[moved];
+            values[moved] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry entry = (Entry) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    private class NullEntry implements Map.Entry<K, V> {
+
+        @Override
+        public K getKey() {
+            return null;
+        }
+
+        @Override
+        public V getValue() {
+            return nullValue;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = nullValue;
+            nullValue = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry entry = (Entry) o;
+            return entry.getKey() == null && Objects.equals(nullValue, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(nullValue);
+        }
+
+        @Override
+        public String toString() {
+            return "null=" + nullValue;
+        }
+    }
+
+    private int find(Object key) {
+        int index = spread(key.hashCode()) & mask;
+        K current;
+        while ((current = keys[index]) != null) {
+            if (current.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftKeys(int index, OpenHashMapIterator iterator) {
+        int last = index;
+        int slot;
+        K key;
+        for (; ; ) {
+            slot = (last + 1) & mask;
+            while ((key = keys[slot]) != null) {
+                int ideal = spread(key.hashCode()) & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (key == null) {
+                break;
+            }
+            if (iterator != null && slot < last) {
+                iterator.addWrapped(key);
+            }
+            keys[last] = key;
+            values[last] = values[slot];
+            last = slot;
+        }
+        keys[last] = null;
+        values[last] = null;
+    }
+
+    private void reBuild(int newCapacity) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            K key = oldKeys[i];
+            if (key != null) {
+                int index = spread(key.hashCode()) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = (K[]) new Object[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.mask = capacity - 1;
+        this.maxFill = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int spread(int hash) {
+        int h = hash * GOLDEN_RATIO;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        return n >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : n + 1;
+    }
+}
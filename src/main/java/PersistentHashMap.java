@@ -0,0 +1,550 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+
+public final class PersistentHashMap<K, V> {
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_DEPTH = 8;
+    private static final Object NOT_FOUND = new Object();
+    private final Node root;
+    private final boolean hasNullKey;
+    private final V nullValue;
+    private final int size;
+    private Map<K, V> view;
+
+    public PersistentHashMap() {
+        this(null, false, null, 0);
+    }
+
+    public PersistentHashMap(Map<? extends K, ? extends V> map) {
+        Builder<K, V> builder = new Builder<>();
+        map.forEach(builder::put);
+        this.root = builder.root;
+        this.hasNullKey = builder.hasNullKey;
+        this.nullValue = builder.nullValue;
+        this.size = builder.size;
+    }
+
+    private PersistentHashMap(Node root, boolean hasNullKey, V nullValue, int size) {
+        this.root = root;
+        this.hasNullKey = hasNullKey;
+        this.nullValue = nullValue;
+        this.size = size;
+    }
+
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        if (key == null) {
+            return hasNullKey ? nullValue : defaultValue;
+        }
+        if (root == null) {
+            return defaultValue;
+        }
+        Object value = root.find(0, hash(key), key);
+        return value == NOT_FOUND ? defaultValue : (V) value;
+    }
+
+    public boolean containsKey(Object key) {
+        if (key == null) {
+            return hasNullKey;
+        }
+        return root != null && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    public PersistentHashMap<K, V> put(K key, V value) {
+        if (key == null) {
+            if (hasNullKey && nullValue == value) {
+                return this;
+            }
+            return new PersistentHashMap<>(root, true, value, hasNullKey ? size : size + 1);
+        }
+        boolean[] changed = new boolean[1];
+        Node node = (root == null ? BitmapNode.EMPTY : root).put(null, 0, hash(key), key, value, changed);
+        if (node == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(node, hasNullKey, nullValue, changed[0] ? size + 1 : size);
+    }
+
+    public PersistentHashMap<K, V> remove(Object key) {
+        if (key == null) {
+            return hasNullKey ? new PersistentHashMap<>(root, false, null, size - 1) : this;
+        }
+        if (root == null) {
+            return this;
+        }
+        boolean[] changed = new boolean[1];
+        Node node = root.remove(null, 0, hash(key), key, changed);
+        if (!changed[0]) {
+            return this;
+        }
+        return new PersistentHashMap<>(node, hasNullKey, nullValue, size - 1);
+    }
+
+    public PersistentHashMap<K, V> putAll(Map<? extends K, ? extends V> map) {
+        Builder<K, V> builder = toBuilder();
+        map.forEach(builder::put);
+        return builder.build();
+    }
+
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root, hasNullKey, nullValue, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (hasNullKey) {
+            action.accept(null, nullValue);
+        }
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    public Map<K, V> asMap() {
+        Map<K, V> map = view;
+        if (map == null) {
+            map = new MapView();
+            view = map;
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        return o instanceof PersistentHashMap && asMap().equals(((PersistentHashMap<?, ?>) o).asMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * GOLDEN_RATIO;
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Node pair(Object edit, int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+        }
+        boolean[] changed = new boolean[1];
+        return BitmapNode.EMPTY
+                .put(edit, shift, hash1, key1, value1, changed)
+                .put(edit, shift, hash2, key2, value2, changed);
+    }
+
+    public static final class Builder<K, V> {
+        private Object edit = new Object();
+        private Node root;
+        private boolean hasNullKey;
+        private V nullValue;
+        private int size;
+
+        public Builder() {
+        }
+
+        private Builder(Node root, boolean hasNullKey, V nullValue, int size) {
+            this.root = root;
+            this.hasNullKey = hasNullKey;
+            this.nullValue = nullValue;
+            this.size = size;
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            if (key == null) {
+                if (!hasNullKey) {
+                    hasNullKey = true;
+                    size++;
+                }
+                nullValue = value;
+                return this;
+            }
+            boolean[] changed = new boolean[1];
+            root = (root == null ? BitmapNode.EMPTY : root).put(edit, 0, hash(key), key, value, changed);
+            if (changed[0]) {
+                size++;
+            }
+            return this;
+        }
+
+        public Builder<K, V> remove(Object key) {
+            if (key == null) {
+                if (hasNullKey) {
+                    hasNullKey = false;
+                    nullValue = null;
+                    size--;
+                }
+                return this;
+            }
+            if (root != null) {
+                boolean[] changed = new boolean[1];
+                root = root.remove(edit, 0, hash(key), key, changed);
+                if (changed[0]) {
+                    size--;
+                }
+            }
+            return this;
+        }
+
+        public V get(Object key) {
+            if (key == null) {
+                return hasNullKey ? nullValue : null;
+            }
+            Object value = root == null ? NOT_FOUND : root.find(0, hash(key), key);
+            return value == NOT_FOUND ? null : (V) value;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PersistentHashMap<K, V> build() {
+            edit = new Object();
+            return new PersistentHashMap<>(root, hasNullKey, nullValue, size);
+        }
+    }
+
+    private abstract static class Node {
+        final Object edit;
+        Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added);
+
+        abstract Node remove(Object edit, int shift, int hash, Object key, boolean[] removed);
+
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                Object key = array[i];
+                if (key != null) {
+                    action.accept(key, array[i + 1]);
+                } else if (array[i + 1] != null) {
+                    ((Node) array[i + 1]).forEach(action);
+                }
+            }
+        }
+
+        boolean isEditable(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+        int bitmap;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            super(edit, array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int index = index(bit) << 1;
+            Object current = array[index];
+            if (current == null) {
+                return ((Node) array[index + 1]).find(shift + BITS, hash, key);
+            }
+            return current.equals(key) ? array[index + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = index(bit) << 1;
+            if ((bitmap & bit) != 0) {
+                Object current = array[index];
+                Object slot = array[index + 1];
+                if (current == null) {
+                    Node node = ((Node) slot).put(edit, shift + BITS, hash, key, value, added);
+                    return node == slot ? this : set(edit, index + 1, node);
+                }
+                if (current.equals(key)) {
+                    return slot == value ? this : set(edit, index + 1, value);
+                }
+                added[0] = true;
+                Node node = pair(edit, shift + BITS, current, slot, hash, key, value);
+                BitmapNode editable = editable(edit);
+                editable.array[index] = null;
+                editable.array[index + 1] = node;
+                return editable;
+            }
+
+            added[0] = true;
+            int count = Integer.bitCount(bitmap) << 1;
+            if (isEditable(edit) && count + 2 <= array.length) {
+                System.arraycopy(array, index, array, index + 2, count - index);
+                array[index] = key;
+                array[index + 1] = value;
+                bitmap |= bit;
+                return this;
+            }
+            Object[] newArray = new Object[edit == null ? count + 2 : Math.min(count + 8, 2 << BITS)];
+            System.arraycopy(array, 0, newArray, 0, index);
+            newArray[index] = key;
+            newArray[index + 1] = value;
+            System.arraycopy(array, index, newArray, index + 2, count - index);
+            if (isEditable(edit)) {
+                array = newArray;
+                bitmap |= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node remove(Object edit, int shift, int hash, Object key, boolean[] removed) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit) << 1;
+            Object current = array[index];
+            if (current == null) {
+                Node child = (Node) array[index + 1];
+                Node node = child.remove(edit, shift + BITS, hash, key, removed);
+                if (node == child) {
+                    return this;
+                }
+                if (node != null) {
+                    return set(edit, index + 1, node);
+                }
+            } else if (!current.equals(key)) {
+                return this;
+            } else {
+                removed[0] = true;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+
+            int count = Integer.bitCount(bitmap) << 1;
+            if (isEditable(edit)) {
+                System.arraycopy(array, index + 2, array, index, count - index - 2);
+                array[count - 2] = null;
+                array[count - 1] = null;
+                bitmap ^= bit;
+                return this;
+            }
+            Object[] newArray = new Object[count - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, count - index - 2);
+            return new BitmapNode(edit, bitmap ^ bit, newArray);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode editable(Object edit) {
+            if (isEditable(edit)) {
+                return this;
+            }
+            int count = Integer.bitCount(bitmap) << 1;
+            Object[] newArray = new Object[edit == null ? count : Math.max(count, Math.min(count + 4, 2 << BITS))];
+            System.arraycopy(array, 0, newArray, 0, count);
+            return new BitmapNode(edit, bitmap, newArray);
+        }
+
+        private BitmapNode set(Object edit, int index, Object value) {
+            BitmapNode editable = editable(edit);
+            editable.array[index] = value;
+            return editable;
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            super(edit, array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int index = indexOf(key);
+            return index >= 0 ? array[index + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(edit, bit(this.hash, shift), new Object[]{null, this})
+                        .put(edit, shift, hash, key, value, added);
+            }
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                Object[] newArray = isEditable(edit) ? array : array.clone();
+                newArray[index + 1] = value;
+                return newArray == array ? this : new CollisionNode(edit, hash, newArray);
+            }
+            added[0] = true;
+            Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            if (isEditable(edit)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        @Override
+        Node remove(Object edit, int shift, int hash, Object key, boolean[] removed) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            removed[0] = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+            if (isEditable(edit)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private class MapView extends AbstractMap<K, V> {
+
+        @Override
+        public V get(Object key) {
+            return PersistentHashMap.this.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return PersistentHashMap.this.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            PersistentHashMap.this.forEach(action);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Map.Entry<K, V> next;
+
+        EntryIterator() {
+            if (root != null) {
+                arrays[++depth] = root.array;
+            }
+            next = hasNullKey ? new AbstractMap.SimpleImmutableEntry<>(null, nullValue) : advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = next;
+            next = advance();
+            return entry;
+        }
+
+        private Map.Entry<K, V> advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth] = null;
+                    positions[depth--] = 0;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                Object key = array[position];
+                Object value = array[position + 1];
+                if (key != null) {
+                    return new AbstractMap.SimpleImmutableEntry<>((K) key, (V) value);
+                }
+                if (value != null) {
+                    arrays[++depth] = ((Node) value).array;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+public final class PersistentList<T> implements Iterable<T> {
+    private static final int MAX_DEPTH = 64;
+    private final Node<T> root;
+    private List<T> view;
+
+    public PersistentList() {
+        this.root = null;
+    }
+
+    public PersistentList(Collection<? extends T> collection) {
+        this.root = build(collection.toArray(), 0, collection.size());
+    }
+
+    private PersistentList(Node<T> root) {
+        this.root = root;
+    }
+
+    public T get(int index) {
+        checkIndex(index, size());
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    public PersistentList<T> set(int index, T element) {
+        checkIndex(index, size());
+        return new PersistentList<>(set(root, index, element));
+    }
+
+    public PersistentList<T> add(T element) {
+        return add(size(), element);
+    }
+
+    public PersistentList<T> add(int index, T element) {
+        checkIndex(index, size() + 1);
+        return new PersistentList<>(insert(root, index, element));
+    }
+
+    public PersistentList<T> addAll(Collection<? extends T> collection) {
+        if (collection.isEmpty()) {
+            return this;
+        }
+        return new PersistentList<>(concat(root, build(collection.toArray(), 0, collection.size())));
+    }
+
+    public PersistentList<T> addAll(PersistentList<? extends T> list) {
+        return new PersistentList<>(concat(root, (Node<T>) list.root));
+    }
+
+    public PersistentList<T> remove(int index) {
+        checkIndex(index, size());
+        return new PersistentList<>(remove(root, index));
+    }
+
+    public PersistentList<T> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size());
+        }
+        Node<T> head = split(root, toIndex)[0];
+        return new PersistentList<>(split(head, fromIndex)[1]);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new NodeIterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        forEach(root, action);
+    }
+
+    public List<T> asList() {
+        List<T> list = view;
+        if (list == null) {
+            list = new ListView();
+            view = list;
+        }
+        return list;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        return o instanceof PersistentList && asList().equals(((PersistentList<?>) o).asList());
+    }
+
+    @Override
+    public int hashCode() {
+        return asList().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static <T> Node<T> build(Object[] elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>((T) elements[middle], build(elements, from, middle), build(elements, middle + 1, to));
+    }
+
+    private static <T> Node<T> set(Node<T> node, int index, T element) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node<>(node.value, set(node.left, index, element), node.right);
+        }
+        if (index > leftSize) {
+            return new Node<>(node.value, node.left, set(node.right, index - leftSize - 1, element));
+        }
+        return new Node<>(element, node.left, node.right);
+    }
+
+    private static <T> Node<T> insert(Node<T> node, int index, T element) {
+        if (node == null) {
+            return new Node<>(element, null, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node.value, insert(node.left, index, element), node.right);
+        }
+        return balance(node.value, node.left, insert(node.right, index - leftSize - 1, element));
+    }
+
+    private static <T> Node<T> remove(Node<T> node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node.value, remove(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.value, node.left, remove(node.right, index - leftSize - 1));
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        return join(node.left, first(node.right), remove(node.right, 0));
+    }
+
+    private static <T> Node<T> concat(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        return join(left, first(right), remove(right, 0));
+    }
+
+    private static <T> Node<T> join(Node<T> left, T value, Node<T> right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            return balance(left.value, left.left, join(left.right, value, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            return balance(right.value, join(left, value, right.left), right.right);
+        }
+        return new Node<>(value, left, right);
+    }
+
+    private static <T> Node<T>[] split(Node<T> node, int index) {
+        Node<T>[] parts = new Node[2];
+        if (node == null) {
+            return parts;
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            Node<T>[] inner = split(node.left, index);
+            parts[0] = inner[0];
+            parts[1] = join(inner[1], node.value, node.right);
+        } else {
+            Node<T>[] inner = split(node.right, index - leftSize - 1);
+            parts[0] = join(node.left, node.value, inner[0]);
+            parts[1] = inner[1];
+        }
+        return parts;
+    }
+
+    private static <T> Node<T> balance(T value, Node<T> left, Node<T> right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) < height(left.right)) {
+                Node<T> pivot = left.right;
+                return new Node<>(pivot.value,
+                        new Node<>(left.value, left.left, pivot.left),
+                        new Node<>(value, pivot.right, right));
+            }
+            return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) < height(right.left)) {
+                Node<T> pivot = right.left;
+                return new Node<>(pivot.value,
+                        new Node<>(value, left, pivot.left),
+                        new Node<>(right.value, pivot.right, right.right));
+            }
+            return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+        }
+        return new Node<>(value, left, right);
+    }
+
+    private static <T> T first(Node<T> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.value;
+    }
+
+    private static <T> void forEach(Node<T> node, Consumer<? super T> action) {
+        while (node != null) {
+            forEach(node.left, action);
+            action.accept(node.value);
+            node = node.right;
+        }
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    public static final class Builder<T> {
+        private Object[] elements = new Object[16];
+        private int size;
+
+        public Builder<T> add(T element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size + (size >> 1));
+            }
+            elements[size++] = element;
+            return this;
+        }
+
+        public Builder<T> addAll(Collection<? extends T> collection) {
+            for (T element : collection) {
+                add(element);
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PersistentList<T> build() {
+            return new PersistentList<>(PersistentList.<T>build(elements, 0, size));
+        }
+    }
+
+    private static class Node<T> {
+        private final T value;
+        private final Node<T> left;
+        private final Node<T> right;
+        private final int size;
+        private final int height;
+
+        Node(T value, Node<T> left, Node<T> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private class ListView extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(int index) {
+            return PersistentList.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return PersistentList.this.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new NodeIterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            PersistentList.this.forEach(action);
+        }
+    }
+
+    private class NodeIterator implements Iterator<T> {
+        private final Node<T>[] stack = new Node[MAX_DEPTH];
+        private int depth;
+
+        NodeIterator() {
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public T next() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack[--depth];
+            stack[depth] = null;
+            pushLeft(node.right);
+            return node.value;
+        }
+
+        private void pushLeft(Node<T> node) {
+            for (; node != null; node = node.left) {
+                stack[depth++] = node;
+            }
+        }
+    }
+}
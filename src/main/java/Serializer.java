@@ -0,0 +1,74 @@
+import java.nio.ByteBuffer;
+
+public interface Serializer<T> {
+    Serializer<Long> LONG = new Serializer<Long>() {
+        @Override
+        public int size() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    Serializer<Integer> INTEGER = new Serializer<Integer>() {
+        @Override
+        public int size() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    int size();
+
+    void write(T value, ByteBuffer buffer, int offset);
+
+    T read(ByteBuffer buffer, int offset);
+
+    static Serializer<byte[]> bytes(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Illegal length: " + length);
+        }
+        return new Serializer<byte[]>() {
+            @Override
+            public int size() {
+                return length;
+            }
+
+            @Override
+            public void write(byte[] value, ByteBuffer buffer, int offset) {
+                if (value.length != length) {
+                    throw new IllegalArgumentException("Expected " + length + " bytes, got " + value.length);
+                }
+                for (int i = 0; i < length; i++) {
+                    buffer.put(offset + i, value[i]);
+                }
+            }
+
+            @Override
+            public byte[] read(ByteBuffer buffer, int offset) {
+                byte[] value = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    value[i] = buffer.get(offset + i);
+                }
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,375 @@
+import java.util.*;
+
+public class UnrolledLinkedList<T> extends AbstractList<T> {
+    private static final int CHUNK_CAPACITY = 64;
+    private static final int MIN_CHUNK_SIZE = CHUNK_CAPACITY / 4;
+    private Chunk[] chunks = new Chunk[8];
+    private int[] offsets = new int[8];
+    private int chunkCount;
+    private long version;
+    private int size;
+
+    public UnrolledLinkedList() {
+    }
+
+    public UnrolledLinkedList(Collection<? extends T> collection) {
+        addAll(collection);
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+
+        int chunkIndex = chunkOf(index);
+        return (T) chunks[chunkIndex].items[index - offsets[chunkIndex]];
+    }
+
+    @Override
+    public T set(int index, T element) {
+        checkIndex(index);
+
+        int chunkIndex = chunkOf(index);
+        Object[] items = chunks[chunkIndex].items;
+        int position = index - offsets[chunkIndex];
+        T old = (T) items[position];
+        items[position] = element;
+        version++;
+        return old;
+    }
+
+    @Override
+    public boolean add(T element) {
+        Chunk last = chunkCount > 0 ? chunks[chunkCount - 1] : null;
+        if (last == null || last.size == CHUNK_CAPACITY) {
+            last = new Chunk();
+            insertChunk(chunkCount, last, size);
+        }
+        last.items[last.size++] = element;
+        size++;
+        version++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index == size) {
+            add(element);
+            return;
+        }
+
+        int chunkIndex = chunkOf(index);
+        Chunk chunk = chunks[chunkIndex];
+        int position = index - offsets[chunkIndex];
+        if (chunk.size == CHUNK_CAPACITY) {
+            split(chunkIndex);
+            if (position > chunk.size) {
+                position -= chunk.size;
+                chunk = chunks[++chunkIndex];
+            }
+        }
+        System.arraycopy(chunk.items, position, chunk.items, position + 1, chunk.size - position);
+        chunk.items[position] = element;
+        chunk.size++;
+        shiftOffsets(chunkIndex + 1, 1);
+        size++;
+        version++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        return addAll(size, collection);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> collection) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Object[] elements = collection.toArray();
+        if (elements.length == 0) {
+            return false;
+        }
+
+        int chunkIndex;
+        if (index == size) {
+            chunkIndex = chunkCount;
+        } else {
+            chunkIndex = chunkOf(index);
+            int position = index - offsets[chunkIndex];
+            if (position > 0) {
+                splitAt(chunkIndex, position);
+                chunkIndex++;
+            }
+        }
+
+        int offset = index;
+        for (int from = 0; from < elements.length; from += CHUNK_CAPACITY) {
+            Chunk chunk = new Chunk();
+            chunk.size = Math.min(CHUNK_CAPACITY, elements.length - from);
+            System.arraycopy(elements, from, chunk.items, 0, chunk.size);
+            insertChunk(chunkIndex++, chunk, offset);
+            offset += chunk.size;
+        }
+        shiftOffsets(chunkIndex, elements.length);
+        size += elements.length;
+        version++;
+        return true;
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+
+        int chunkIndex = chunkOf(index);
+        Chunk chunk = chunks[chunkIndex];
+        int position = index - offsets[chunkIndex];
+        T old = (T) chunk.items[position];
+        System.arraycopy(chunk.items, position + 1, chunk.items, position, chunk.size - position - 1);
+        chunk.items[--chunk.size] = null;
+        shiftOffsets(chunkIndex + 1, -1);
+
+        if (chunk.size == 0) {
+            removeChunk(chunkIndex);
+        } else if (chunk.size < MIN_CHUNK_SIZE) {
+            if (chunkIndex + 1 < chunkCount && chunk.size + chunks[chunkIndex + 1].size <= CHUNK_CAPACITY) {
+                merge(chunkIndex);
+            } else if (chunkIndex > 0 && chunk.size + chunks[chunkIndex - 1].size <= CHUNK_CAPACITY) {
+                merge(chunkIndex - 1);
+            }
+        }
+        size--;
+        version++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(chunks, 0, chunkCount, null);
+        chunkCount = 0;
+        size = 0;
+        version++;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return listIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new InnerListIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int fromIndex) {
+        if (fromIndex < 0 || fromIndex > size) {
+            throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + size);
+        }
+        return new InnerListIterator(fromIndex);
+    }
+
+    public class InnerListIterator implements ListIterator<T> {
+        private int cursorIndex;
+        private int lastReturned = -1;
+        private Chunk chunk;
+        private int chunkIndex;
+        private int position;
+        private long innerVersion = version;
+
+        InnerListIterator(int cursorIndex) {
+            this.cursorIndex = cursorIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursorIndex < size;
+        }
+
+        @Override
+        public T next() {
+            checkLastModified();
+            if (cursorIndex >= size) {
+                throw new NoSuchElementException();
+            }
+            if (chunk == null) {
+                seek();
+            } else if (position == chunk.size) {
+                chunk = chunks[++chunkIndex];
+                position = 0;
+            }
+            lastReturned = cursorIndex++;
+            return (T) chunk.items[position++];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursorIndex > 0;
+        }
+
+        @Override
+        public T previous() {
+            checkLastModified();
+            if (cursorIndex <= 0) {
+                throw new NoSuchElementException();
+            }
+            cursorIndex--;
+            if (chunk != null && position > 0) {
+                position--;
+            } else {
+                seek();
+            }
+            lastReturned = cursorIndex;
+            return (T) chunk.items[position];
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursorIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursorIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkCorrectCalls();
+            checkLastModified();
+            UnrolledLinkedList.this.remove(lastReturned);
+            if (lastReturned < cursorIndex) {
+                cursorIndex--;
+            }
+            lastReturned = -1;
+            chunk = null;
+            innerVersion = version;
+        }
+
+        @Override
+        public void set(T element) {
+            checkCorrectCalls();
+            checkLastModified();
+            UnrolledLinkedList.this.set(lastReturned, element);
+            innerVersion = version;
+        }
+
+        @Override
+        public void add(T element) {
+            checkLastModified();
+            UnrolledLinkedList.this.add(cursorIndex++, element);
+            lastReturned = -1;
+            chunk = null;
+            innerVersion = version;
+        }
+
+        private void seek() {
+            chunkIndex = chunkOf(cursorIndex);
+            chunk = chunks[chunkIndex];
+            position = cursorIndex - offsets[chunkIndex];
+        }
+
+        private void checkLastModified() {
+            if (innerVersion != version) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        private void checkCorrectCalls() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    public T getFirstElement() {
+        return size > 0 ? (T) chunks[0].items[0] : null;
+    }
+
+    public T getLastElement() {
+        if (size == 0) {
+            return null;
+        }
+        Chunk last = chunks[chunkCount - 1];
+        return (T) last.items[last.size - 1];
+    }
+
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private void split(int chunkIndex) {
+        splitAt(chunkIndex, chunks[chunkIndex].size >>> 1);
+    }
+
+    private void splitAt(int chunkIndex, int position) {
+        Chunk chunk = chunks[chunkIndex];
+        Chunk right = new Chunk();
+        right.size = chunk.size - position;
+        System.arraycopy(chunk.items, position, right.items, 0, right.size);
+        Arrays.fill(chunk.items, position, chunk.size, null);
+        chunk.size = position;
+        insertChunk(chunkIndex + 1, right, offsets[chunkIndex] + position);
+    }
+
+    private void merge(int chunkIndex) {
+        Chunk left = chunks[chunkIndex];
+        Chunk right = chunks[chunkIndex + 1];
+        System.arraycopy(right.items, 0, left.items, left.size, right.size);
+        left.size += right.size;
+        removeChunk(chunkIndex + 1);
+    }
+
+    private void insertChunk(int chunkIndex, Chunk chunk, int offset) {
+        if (chunkCount == chunks.length) {
+            int newLength = chunks.length + (chunks.length >> 1);
+            chunks = Arrays.copyOf(chunks, newLength);
+            offsets = Arrays.copyOf(offsets, newLength);
+        }
+        System.arraycopy(chunks, chunkIndex, chunks, chunkIndex + 1, chunkCount - chunkIndex);
+        System.arraycopy(offsets, chunkIndex, offsets, chunkIndex + 1, chunkCount - chunkIndex);
+        chunks[chunkIndex] = chunk;
+        offsets[chunkIndex] = offset;
+        chunkCount++;
+    }
+
+    private void removeChunk(int chunkIndex) {
+        System.arraycopy(chunks, chunkIndex + 1, chunks, chunkIndex, chunkCount - chunkIndex - 1);
+        System.arraycopy(offsets, chunkIndex + 1, offsets, chunkIndex, chunkCount - chunkIndex - 1);
+        chunks[--chunkCount] = null;
+    }
+
+    private void shiftOffsets(int fromChunk, int delta) {
+        for (int i = fromChunk; i < chunkCount; i++) {
+            offsets[i] += delta;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static class Chunk {
+        private final Object[] items = new Object[CHUNK_CAPACITY];
+        private int size;
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CollectionCodecTest {
+
+    @Test
+    public void mapRoundTripWithNullKeysAndValues() throws IOException {
+        for (boolean compress : new boolean[]{false, true}) {
+            HashMap<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < 1000; i++) {
+                map.put("key" + i, i % 7 == 0 ? null : i);
+            }
+            map.put(null, 42);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CollectionCodec.writeMap(map, out, Codec.STRING, Codec.INTEGER, compress);
+            HashMap<String, Integer> read = CollectionCodec.readMap(new ByteArrayInputStream(out.toByteArray()),
+                    Codec.STRING, Codec.INTEGER);
+
+            assertEquals(map, read);
+            assertEquals(Integer.valueOf(42), read.get(null));
+            assertTrue(read.containsKey("key7"));
+            assertNull(read.get("key7"));
+        }
+    }
+
+    @Test
+    public void listRoundTripWithNullElements() throws IOException {
+        for (boolean compress : new boolean[]{false, true}) {
+            LinkedList<String> list = new LinkedList<>();
+            for (int i = 0; i < 1000; i++) {
+                list.add(i % 5 == 0 ? null : "element" + i);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CollectionCodec.writeList(list, out, Codec.STRING, compress);
+            LinkedList<String> read = CollectionCodec.readList(new ByteArrayInputStream(out.toByteArray()),
+                    Codec.STRING);
+
+            assertEquals(new ArrayList<>(list), new ArrayList<>(read));
+        }
+    }
+
+    @Test
+    public void snapshotsBackToBackInOneStream() throws IOException {
+        HashMap<Integer, String> map = new HashMap<>();
+        map.put(1, "one");
+        map.put(null, null);
+        LinkedList<Integer> list = new LinkedList<>();
+        list.addAll(Arrays.asList(1, null, 3));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CollectionCodec.writeMap(map, out, Codec.INTEGER, Codec.STRING, false);
+        CollectionCodec.writeList(list, out, Codec.INTEGER, false);
+        CollectionCodec.writeMap(map, out, Codec.INTEGER, Codec.STRING, true);
+
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(map, CollectionCodec.readMap(in, Codec.INTEGER, Codec.STRING));
+        assertEquals(Arrays.asList(1, null, 3), new ArrayList<>(CollectionCodec.readList(in, Codec.INTEGER)));
+        assertEquals(map, CollectionCodec.readMap(in, Codec.INTEGER, Codec.STRING));
+    }
+}
@@ -0,0 +1,34 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentHashMapTest {
+
+    @Test
+    public void reentrantResizeDuringComputeIfAbsentIsRejected() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        try {
+            // 15 stays in an odd basket whatever the table length, so the even keys never meet it
+            map.computeIfAbsent(15, key -> {
+                for (int i = 0; i < 1000; i++) {
+                    map.put(i * 2, i);
+                }
+                return key;
+            });
+            fail("Recursive update was not detected");
+        } catch (IllegalStateException e) {
+            assertEquals("Recursive update", e.getMessage());
+        }
+    }
+
+    @Test
+    public void reentrantUpdateOfReservedBasketIsRejected() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        try {
+            map.compute(1, (key, value) -> map.put(1, 1));
+            fail("Recursive update was not detected");
+        } catch (IllegalStateException e) {
+            assertEquals("Recursive update", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentLinkedQueueTest {
+
+    @Test
+    public void removeThroughIterator() {
+        ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>(Arrays.asList(1, 2, 3, 4, 5, 6));
+
+        assertTrue(queue.remove(2));
+        assertFalse(queue.remove(2));
+        assertTrue(queue.removeIf(element -> element % 3 == 0));
+        assertEquals(Arrays.asList(1, 4, 5), new ArrayList<>(queue));
+        assertTrue(queue.retainAll(Arrays.asList(4, 5)));
+        assertEquals(Arrays.asList(4, 5), new ArrayList<>(queue));
+        assertEquals(2, queue.size());
+
+        Iterator<Integer> iterator = queue.iterator();
+        iterator.next();
+        iterator.remove();
+        try {
+            iterator.remove();
+            fail("Second remove was accepted");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(Integer.valueOf(5), queue.peek());
+        assertEquals(Integer.valueOf(5), queue.poll());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void pollAndDrainSkipRemovedElements() {
+        ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>(Arrays.asList(1, 2, 3, 4));
+        queue.remove(1);
+        queue.remove(3);
+
+        assertEquals(Integer.valueOf(2), queue.peek());
+        assertEquals(2, queue.size());
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained));
+        assertEquals(Arrays.asList(2, 4), drained);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void producersAndConsumersExchangeEveryElementOnce() throws Exception {
+        ConcurrentLinkedQueue<Long> queue = new ConcurrentLinkedQueue<>();
+        int producers = 3;
+        int consumers = 3;
+        int perProducer = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        AtomicLong consumed = new AtomicLong();
+        AtomicLong sum = new AtomicLong();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long base = (long) p * perProducer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= perProducer; i++) {
+                        queue.offer(base + i);
+                    }
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    while (consumed.get() < (long) producers * perProducer) {
+                        Long element = queue.poll();
+                        if (element != null) {
+                            sum.addAndGet(element);
+                            consumed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long total = (long) producers * perProducer;
+        assertEquals(total, consumed.get());
+        assertEquals(total * (total + 1) / 2, sum.get());
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,207 @@
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class HashMapTest {
+
+    @Test
+    public void collidingComparableKeysTreeifyAndUntreeify() {
+        checkCollisionFlood(new HashMap<>(64), ComparableKey::new);
+    }
+
+    @Test
+    public void collidingIncomparableKeysTreeifyAndUntreeify() {
+        checkCollisionFlood(new HashMap<>(64), Key::new);
+    }
+
+    @Test
+    public void collisionFloodKeepsTreeBinLogarithmic() {
+        int count = 50_000;
+        HashMap<ComparableKey, Integer> map = new HashMap<>(64);
+        for (int i = 0; i < count; i++) {
+            map.put(new ComparableKey(42, i), i);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i), map.get(new ComparableKey(42, i)));
+        }
+        assertNull(map.get(new ComparableKey(42, count)));
+        assertTreeBinHeight(map, count);
+
+        for (int i = 0; i < count; i += 2) {
+            assertEquals(Integer.valueOf(i), map.remove(new ComparableKey(42, i)));
+        }
+        assertTreeBinHeight(map, count / 2);
+    }
+
+    @Test
+    public void collidingKeysDuringIncrementalResize() {
+        HashMap<Key, Integer> map = new HashMap<>(64, 0.75, true);
+        java.util.HashMap<Key, Integer> expected = new java.util.HashMap<>();
+        // 821 entries resize the table from 1093 to 1639 baskets on the last put, and the next
+        // few hundred operations still find part of the entries in the old table.
+        for (int i = 0; i < 821; i++) {
+            map.put(new Key(1000 + i, i), i);
+            expected.put(new Key(1000 + i, i), i);
+        }
+        for (int i = 0; i < 60; i++) {
+            assertEquals(expected.put(new Key(7, i), i), map.put(new Key(7, i), i));
+        }
+        assertEquals(1, map.getStats().getTreeBins());
+        for (int i = 0; i < 60; i += 5) {
+            assertEquals(expected.get(new Key(7, i)), map.get(new Key(7, i)));
+            assertEquals(expected.remove(new Key(7, i + 1)), map.remove(new Key(7, i + 1)));
+        }
+        assertSameContents(expected, map);
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(expected.remove(new Key(7, i)), map.remove(new Key(7, i)));
+        }
+        assertEquals(0, map.getStats().getTreeBins());
+        assertSameContents(expected, map);
+    }
+
+    @Test
+    public void iterateDuringIncrementalResize() throws Exception {
+        HashMap<Key, Integer> map = new HashMap<>(64, 0.75, true);
+        java.util.HashMap<Key, Integer> expected = new java.util.HashMap<>();
+        for (int i = 0; i < 821; i++) {
+            map.put(new Key(1000 + i, i), i);
+            expected.put(new Key(1000 + i, i), i);
+        }
+        assertTrue(migrationPending(map));
+
+        Set<Key> keys = new HashSet<>();
+        for (Key key : map.keySet()) {
+            assertTrue(keys.add(key));
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.keySet(), keys);
+        assertEquals(expected.size(), map.values().stream().count());
+        assertEquals(expected.values().stream().mapToInt(Integer::intValue).sum(),
+                map.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(expected.keySet(), map.keySet().parallelStream().collect(Collectors.toSet()));
+        assertEquals(expected, map.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        assertTrue(migrationPending(map));
+
+        for (Iterator<Map.Entry<Key, Integer>> iterator = map.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Key, Integer> entry = iterator.next();
+            assertTrue(map.containsKey(entry.getKey()));
+            if (entry.getValue() % 3 == 0) {
+                iterator.remove();
+                expected.remove(entry.getKey());
+            }
+        }
+        assertTrue(migrationPending(map));
+        assertSameContents(expected, map);
+    }
+
+    private static <T extends Key> void checkCollisionFlood(HashMap<T, Integer> map, KeyFactory<T> factory) {
+        java.util.HashMap<T, Integer> expected = new java.util.HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.put(factory.create(42, i), i), map.put(factory.create(42, i), i));
+        }
+        assertEquals(1, map.getStats().getTreeBins());
+        assertSameContents(expected, map);
+
+        for (int i = 0; i < 100; i += 3) {
+            assertEquals(expected.put(factory.create(42, i), -i), map.put(factory.create(42, i), -i));
+        }
+        assertNull(map.get(factory.create(42, 1000)));
+        assertNull(map.get(factory.create(43, 1)));
+        assertSameContents(expected, map);
+
+        for (int i = 0; i < 96; i++) {
+            assertEquals(expected.remove(factory.create(42, i)), map.remove(factory.create(42, i)));
+        }
+        assertNull(map.remove(factory.create(42, 1)));
+        assertEquals(0, map.getStats().getTreeBins());
+        assertSameContents(expected, map);
+
+        Iterator<T> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            T key = iterator.next();
+            if (key.id % 2 == 0) {
+                iterator.remove();
+                expected.remove(key);
+            }
+        }
+        assertSameContents(expected, map);
+    }
+
+    private static void assertTreeBinHeight(HashMap<?, ?> map, int count) {
+        HashMapStats stats = map.getStats();
+        assertEquals(count, stats.getSize());
+        assertEquals(1, stats.getTreeBins());
+        assertEquals(count, stats.getMaxChainLength());
+        // Every key sits in the one tree bin, so the average probe length is the height of its root.
+        double bound = 1.45 * Math.log(count + 2) / Math.log(2);
+        assertTrue(stats.toString(), stats.getAverageProbeLength() <= bound);
+    }
+
+    private static boolean migrationPending(HashMap<?, ?> map) throws Exception {
+        Field oldNodes = HashMap.class.getDeclaredField("oldNodes");
+        oldNodes.setAccessible(true);
+        return oldNodes.get(map) != null;
+    }
+
+    private static <T> void assertSameContents(Map<T, Integer> expected, HashMap<T, Integer> map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<T, Integer> entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        List<T> iterated = new ArrayList<>();
+        for (Map.Entry<T, Integer> entry : map.entrySet()) {
+            iterated.add(entry.getKey());
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+        }
+        assertEquals(expected.size(), iterated.size());
+        assertEquals(expected.keySet(), new HashSet<>(iterated));
+    }
+
+    private interface KeyFactory<T extends Key> {
+        T create(int hash, int id);
+    }
+
+    private static class Key {
+        final int hash;
+        final int id;
+
+        Key(int hash, int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id && ((Key) o).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" + hash + ", " + id + '}';
+        }
+    }
+
+    private static class ComparableKey extends Key implements Comparable<ComparableKey> {
+
+        ComparableKey(int hash, int id) {
+            super(hash, id);
+        }
+
+        @Override
+        public int compareTo(ComparableKey o) {
+            return Integer.compare(id, o.id);
+        }
+    }
+}
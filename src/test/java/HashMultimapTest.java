@@ -0,0 +1,36 @@
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HashMultimapTest {
+
+    @Test
+    public void getAllIsUnaffectedByLaterUpdates() {
+        HashMultimap<String, Integer> multimap = new HashMultimap<>();
+        for (int i = 0; i < 4; i++) {
+            multimap.putValue("a", i);
+        }
+        List<Integer> values = multimap.getAll("a");
+
+        multimap.removeValue("a", 1);
+        multimap.putValue("a", 4);
+        multimap.putValue("a", 5);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3), values);
+        assertEquals(Arrays.asList(0, 2, 3, 4, 5), multimap.getAll("a"));
+    }
+
+    @Test
+    public void removeAllReturnsRemovedValues() {
+        HashMultimap<String, Integer> multimap = new HashMultimap<>();
+        multimap.putValue("a", 1);
+        multimap.putValue("a", 2);
+        multimap.putValue("b", 3);
+
+        assertEquals(Arrays.asList(1, 2), multimap.removeAll("a"));
+        assertEquals(Collections.emptyList(), multimap.getAll("a"));
+        assertEquals(1, multimap.size());
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LinkedBlockingQueueTest {
+
+    @Test
+    public void removeThroughIterator() {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>(6);
+        queue.addAll(Arrays.asList(1, 2, 3, 4, 5, 6));
+
+        assertTrue(queue.remove(2));
+        assertFalse(queue.remove(2));
+        assertTrue(queue.removeIf(element -> element % 3 == 0));
+        assertEquals(Arrays.asList(1, 4, 5), new ArrayList<>(queue));
+        assertTrue(queue.retainAll(Arrays.asList(4, 5)));
+        assertEquals(Arrays.asList(4, 5), new ArrayList<>(queue));
+        assertEquals(2, queue.size());
+        assertEquals(4, queue.remainingCapacity());
+        assertTrue(queue.contains(5));
+        assertFalse(queue.contains(1));
+
+        Iterator<Integer> iterator = queue.iterator();
+        iterator.next();
+        iterator.next();
+        iterator.remove();
+        try {
+            iterator.remove();
+            fail("Second remove was accepted");
+        } catch (IllegalStateException expected) {
+        }
+        assertTrue(queue.offer(7));
+        assertEquals(Arrays.asList(4, 7), new ArrayList<>(queue));
+    }
+
+    @Test
+    public void iteratorSurvivesConcurrentTakes() {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        queue.addAll(Arrays.asList(1, 2, 3, 4));
+        Iterator<Integer> iterator = queue.iterator();
+
+        assertEquals(Integer.valueOf(1), iterator.next());
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertEquals(Integer.valueOf(2), queue.poll());
+        queue.offer(5);
+
+        List<Integer> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+        assertTrue(rest.containsAll(Arrays.asList(3, 4, 5)));
+        assertFalse(rest.contains(1));
+    }
+
+    @Test
+    public void producersAndConsumersExchangeEveryElementOnce() throws Exception {
+        LinkedBlockingQueue<Long> queue = new LinkedBlockingQueue<>(1024);
+        int producers = 3;
+        int consumers = 3;
+        int perProducer = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        AtomicLong sum = new AtomicLong();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long base = (long) p * perProducer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= perProducer; i++) {
+                        queue.put(base + i);
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        sum.addAndGet(queue.take());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long total = (long) producers * perProducer;
+        assertEquals(total * (total + 1) / 2, sum.get());
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,165 @@
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LinkedHashMapTest {
+    private static final int KEYS = 512;
+    private static final int OPERATIONS = 50_000;
+
+    @Test
+    public void insertionOrderMatchesJavaUtil() {
+        checkAgainstJavaUtil(new LinkedHashMap<>(16, 0.75, false), new java.util.LinkedHashMap<>(16, 0.75f, false), 1);
+    }
+
+    @Test
+    public void accessOrderMatchesJavaUtil() {
+        checkAgainstJavaUtil(new LinkedHashMap<>(16, 0.75, true), new java.util.LinkedHashMap<>(16, 0.75f, true), 2);
+    }
+
+    @Test
+    public void removeEldestEntryInInsertionOrderMatchesJavaUtil() {
+        checkAgainstJavaUtil(new BoundedLinkedHashMap(false), new BoundedJavaUtilLinkedHashMap(false), 3);
+    }
+
+    @Test
+    public void removeEldestEntryInAccessOrderMatchesJavaUtil() {
+        checkAgainstJavaUtil(new BoundedLinkedHashMap(true), new BoundedJavaUtilLinkedHashMap(true), 4);
+    }
+
+    @Test
+    public void pollEntriesFollowLinkOrder() {
+        LinkedHashMap<Integer, Integer> map = new LinkedHashMap<>(16, 0.75, true);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        map.get(0);
+        assertEquals(Integer.valueOf(1), map.firstEntry().getKey());
+        assertEquals(Integer.valueOf(0), map.lastEntry().getKey());
+        assertEquals(Integer.valueOf(1), map.pollFirstEntry().getKey());
+        assertEquals(Integer.valueOf(0), map.pollLastEntry().getKey());
+        assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7, 8, 9), new ArrayList<>(map.keySet()));
+    }
+
+    private static void checkAgainstJavaUtil(LinkedHashMap<CollidingKey, Integer> map,
+                                             java.util.LinkedHashMap<CollidingKey, Integer> expected, long seed) {
+        Random random = new Random(seed);
+        boolean sawTreeBin = false;
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            CollidingKey key = new CollidingKey(random.nextInt(KEYS));
+            int value = random.nextInt(1000);
+            switch (random.nextInt(12)) {
+                case 0:
+                case 1:
+                case 2:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 3:
+                    assertEquals(expected.get(key), map.get(key));
+                    break;
+                case 4:
+                    assertEquals(expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+                    break;
+                case 5:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+                case 6:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 7:
+                    assertEquals(expected.putIfAbsent(key, value), map.putIfAbsent(key, value));
+                    break;
+                case 8:
+                    assertEquals(expected.replace(key, value), map.replace(key, value));
+                    break;
+                case 9:
+                    assertEquals(expected.computeIfAbsent(key, k -> value), map.computeIfAbsent(key, k -> value));
+                    break;
+                case 10:
+                    assertEquals(expected.merge(key, value, Integer::sum), map.merge(key, value, Integer::sum));
+                    break;
+                default:
+                    removeThroughIterators(map, expected, random.nextInt(7) + 2);
+                    break;
+            }
+            if (operation % 64 == 0) {
+                assertSameOrder(expected, map);
+                sawTreeBin |= map.getStats().getTreeBins() > 0;
+            }
+        }
+        assertSameOrder(expected, map);
+        assertTrue(sawTreeBin);
+    }
+
+    private static void removeThroughIterators(LinkedHashMap<CollidingKey, Integer> map,
+                                               java.util.LinkedHashMap<CollidingKey, Integer> expected, int step) {
+        Iterator<Map.Entry<CollidingKey, Integer>> actual = map.entrySet().iterator();
+        Iterator<Map.Entry<CollidingKey, Integer>> reference = expected.entrySet().iterator();
+        for (int i = 0; reference.hasNext(); i++) {
+            assertTrue(actual.hasNext());
+            Map.Entry<CollidingKey, Integer> entry = actual.next();
+            assertEquals(reference.next(), entry);
+            if (i % step == 0) {
+                actual.remove();
+                reference.remove();
+            }
+        }
+        assertFalse(actual.hasNext());
+    }
+
+    private static void assertSameOrder(java.util.LinkedHashMap<CollidingKey, Integer> expected,
+                                        LinkedHashMap<CollidingKey, Integer> map) {
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+    }
+
+    private static class CollidingKey {
+        final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id % 16;
+        }
+
+        @Override
+        public String toString() {
+            return "CollidingKey{" + id + '}';
+        }
+    }
+
+    private static class BoundedLinkedHashMap extends LinkedHashMap<CollidingKey, Integer> {
+
+        BoundedLinkedHashMap(boolean accessOrder) {
+            super(16, 0.75, accessOrder);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CollidingKey, Integer> eldest) {
+            return size() > 300;
+        }
+    }
+
+    private static class BoundedJavaUtilLinkedHashMap extends java.util.LinkedHashMap<CollidingKey, Integer> {
+
+        BoundedJavaUtilLinkedHashMap(boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CollidingKey, Integer> eldest) {
+            return size() > 300;
+        }
+    }
+}
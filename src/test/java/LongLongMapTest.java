@@ -0,0 +1,19 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongLongMapTest {
+
+    @Test
+    public void addToStartsAbsentKeysFromZero() {
+        LongLongMap map = new LongLongMap(16, 0.75, -1);
+
+        assertEquals(-1, map.addTo(7, 1));
+        assertEquals(1, map.addTo(7, 2));
+        assertEquals(3, map.get(7));
+        assertEquals(-1, map.get(8));
+
+        assertEquals(-1, map.addTo(0, 5));
+        assertEquals(5, map.get(0));
+    }
+}
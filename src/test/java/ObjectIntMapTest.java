@@ -0,0 +1,19 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ObjectIntMapTest {
+
+    @Test
+    public void addToStartsAbsentKeysFromZero() {
+        ObjectIntMap<String> map = new ObjectIntMap<>(16, 0.75, -1);
+
+        assertEquals(-1, map.addTo("a", 1));
+        assertEquals(1, map.addTo("a", 2));
+        assertEquals(3, map.get("a"));
+        assertEquals(-1, map.get("b"));
+
+        assertEquals(-1, map.addTo(null, 5));
+        assertEquals(5, map.get(null));
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class OffHeapHashMapTest {
+
+    @Test
+    public void reopenedFileKeepsEntriesAndSize() throws IOException {
+        Path directory = Files.createTempDirectory("offheap");
+        Path file = directory.resolve("map.bin");
+        try {
+            Map<Long, Long> expected = new java.util.HashMap<>();
+            try (OffHeapHashMap<Long, Long> map = open(file)) {
+                for (long i = 0; i < 100; i++) {
+                    assertNull(map.put(i, i * 31));
+                    expected.put(i, i * 31);
+                }
+                for (long i = 0; i < 100; i += 4) {
+                    assertEquals(Long.valueOf(i * 31), map.remove(i));
+                    expected.remove(i);
+                }
+                assertEquals(Long.valueOf(31), map.put(1L, -1L));
+                expected.put(1L, -1L);
+            }
+
+            try (OffHeapHashMap<Long, Long> map = open(file)) {
+                assertSameContents(expected, map);
+                assertNull(map.put(1000L, 1L));
+                expected.put(1000L, 1L);
+            }
+
+            try (OffHeapHashMap<Long, Long> map = open(file)) {
+                assertSameContents(expected, map);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void fileBackedMapGrowsThroughResizeFile() throws IOException {
+        Path directory = Files.createTempDirectory("offheap");
+        Path file = directory.resolve("map.bin");
+        Path resizeFile = directory.resolve("map.bin.resize");
+        try {
+            Map<Long, Long> expected = new java.util.HashMap<>();
+            try (OffHeapHashMap<Long, Long> map = new OffHeapHashMap<>(file, Serializer.LONG, Serializer.LONG, 4, 0.75)) {
+                for (long i = 0; i < 5000; i++) {
+                    assertNull(map.put(i * 7919, i));
+                    expected.put(i * 7919, i);
+                }
+                assertFalse(Files.exists(resizeFile));
+                assertSameContents(expected, map);
+            }
+            assertFalse(Files.exists(resizeFile));
+
+            try (OffHeapHashMap<Long, Long> map = open(file)) {
+                assertSameContents(expected, map);
+                for (long i = 5000; i < 10000; i++) {
+                    assertNull(map.put(i * 7919, i));
+                    expected.put(i * 7919, i);
+                }
+            }
+
+            try (OffHeapHashMap<Long, Long> map = open(file)) {
+                assertSameContents(expected, map);
+            }
+            assertFalse(Files.exists(resizeFile));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static OffHeapHashMap<Long, Long> open(Path file) {
+        return new OffHeapHashMap<>(file, Serializer.LONG, Serializer.LONG);
+    }
+
+    private static void assertSameContents(Map<Long, Long> expected, OffHeapHashMap<Long, Long> map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<Long, Long> iterated = new java.util.HashMap<>();
+        map.forEach((key, value) -> assertNull(iterated.put(key, value)));
+        assertEquals(expected, iterated);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
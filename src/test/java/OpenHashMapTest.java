@@ -0,0 +1,39 @@
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class OpenHashMapTest {
+
+    @Test
+    public void iteratorRemoveAcrossWrapAroundMatchesJavaUtil() {
+        Random random = new Random(42);
+        for (int run = 0; run < 20000; run++) {
+            OpenHashMap<String, Integer> map = new OpenHashMap<>(4);
+            java.util.HashMap<String, Integer> expected = new java.util.HashMap<>();
+            int count = 1 + random.nextInt(12);
+            for (int i = 0; i < count; i++) {
+                String key = "k" + random.nextInt(40);
+                map.put(key, i);
+                expected.put(key, i);
+            }
+
+            List<String> seen = new ArrayList<>();
+            Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Integer> entry = iterator.next();
+                assertNotNull("null key after " + seen, entry.getKey());
+                seen.add(entry.getKey());
+                if (random.nextBoolean()) {
+                    iterator.remove();
+                    expected.remove(entry.getKey());
+                }
+            }
+
+            assertEquals("seen=" + seen, expected.size(), map.size());
+            assertEquals(expected, map);
+            assertEquals(new HashSet<>(seen).size(), seen.size());
+        }
+    }
+}